@@ -0,0 +1,156 @@
+package com.example.fuelwiselog.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Checks the FuelDatabaseConfig defaults on a device: with WAL and synchronous = NORMAL, reads during a
+// long import or cascade delete return the last committed snapshot at once instead of queueing behind
+// the writer. The writer holds its transaction open while the reads run; the worst read time is logged.
+@RunWith(AndroidJUnit4.class)
+public class FuelDatabaseConcurrencyTest {
+
+    private static final String TAG = "FuelDbConcurrency";
+    private static final String DB_NAME = "fuelwise_concurrency_test.db";
+
+    private static final int SEED_ROWS = 2_000;
+    private static final int IMPORT_ROWS = 20_000;
+    private static final int READS = 20;
+    // Upper bound on how long the writer keeps its transaction open
+    private static final long HOLD_MS = 10_000;
+    // A read that waited for the writer would take about HOLD_MS
+    private static final long MAX_READ_MS = 250;
+
+    private Context context;
+    private FuelDatabase db;
+    private long vehicleId;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        db = FuelDatabaseConfig.defaults()
+                .applyTo(Room.databaseBuilder(context, FuelDatabase.class, DB_NAME))
+                .build();
+        vehicleId = db.vehicleDao().insert(new Vehicle("Test", "Car", "#FF0000", null));
+        db.fuelRecordDao().insertRows(records(0, SEED_ROWS));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void writerConnectionUsesWalAndSynchronousNormal() {
+        assertEquals("wal", queryString("PRAGMA journal_mode"));
+        // The pragma is per connection; the writer's is the one inside a transaction. NORMAL = 1.
+        long synchronous = db.runInTransaction(() -> queryLong("PRAGMA synchronous"));
+        assertEquals(1, synchronous);
+    }
+
+    @Test
+    public void readsDoNotWaitForLongImport() throws Exception {
+        assertReadsNotBlocked("import", () -> db.fuelRecordDao().insertRows(records(SEED_ROWS, IMPORT_ROWS)));
+    }
+
+    @Test
+    public void readsDoNotWaitForCascadeDelete() throws Exception {
+        assertReadsNotBlocked("delete", () -> {
+            Vehicle v = new Vehicle("Test", "Car", "#FF0000", null);
+            v.setId(vehicleId);
+            db.vehicleDao().delete(v);
+        });
+    }
+
+    // Runs write in a transaction on another thread, keeps it open, and times READS reads meanwhile
+    private void assertReadsNotBlocked(String label, Runnable write) throws Exception {
+        CountDownLatch inTransaction = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Throwable> writerError = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            try {
+                db.runInTransaction(() -> {
+                    write.run();
+                    inTransaction.countDown();
+                    // Like an import still working through its chunks: the write lock stays taken.
+                    try {
+                        release.await(HOLD_MS, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Throwable t) {
+                writerError.set(t);
+                inTransaction.countDown();
+            }
+        }, "test-writer");
+        writer.start();
+        assertTrue(inTransaction.await(30, TimeUnit.SECONDS));
+
+        long worstNanos = 0;
+        long totalNanos = 0;
+        for (int i = 0; i < READS; i++) {
+            long start = System.nanoTime();
+            long count = queryLong("SELECT COUNT(*) FROM fuel_records");
+            long took = System.nanoTime() - start;
+            worstNanos = Math.max(worstNanos, took);
+            totalNanos += took;
+            // The uncommitted write is invisible: the read ran on the committed snapshot.
+            assertEquals(SEED_ROWS, count);
+        }
+
+        release.countDown();
+        writer.join(30_000);
+        assertNull(writerError.get());
+
+        long worstMs = TimeUnit.NANOSECONDS.toMillis(worstNanos);
+        Log.i(TAG, label + ": " + READS + " reads during the write transaction, worst "
+                + worstMs + " ms, mean " + TimeUnit.NANOSECONDS.toMicros(totalNanos / READS) + " us");
+        assertTrue(label + ": a read waited " + worstMs + " ms for the writer", worstMs < MAX_READ_MS);
+    }
+
+    // n fill-ups of the test vehicle with increasing mileage, starting after row `from`
+    private List<FuelRecord> records(int from, int n) {
+        List<FuelRecord> list = new ArrayList<>(n);
+        for (int i = from; i < from + n; i++) {
+            list.add(new FuelRecord(vehicleId, "2024-01-01", 30.0, 100.0, (i + 1) * 100.0));
+        }
+        return list;
+    }
+
+    private long queryLong(String sql) {
+        try (Cursor c = db.query(sql, null)) {
+            c.moveToFirst();
+            return c.getLong(0);
+        }
+    }
+
+    private String queryString(String sql) {
+        try (Cursor c = db.query(sql, null)) {
+            c.moveToFirst();
+            return c.getString(0);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.fuelwiselog.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.os.Build;
+import android.text.PrecomputedText;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.fuelwiselog.R;
+import com.example.fuelwiselog.core.EpochDays;
+import com.example.fuelwiselog.data.FuelCsvImporter;
+import com.example.fuelwiselog.data.FuelDatabase;
+import com.example.fuelwiselog.data.FuelDatabaseConfig;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Flings the fuel log over a few thousand rows and counts the work it causes: full row binds by the
+// adapter and layout passes of the window. A row should be bound once each time it scrolls into view
+// (plus a few prefetched rows that never arrive), and layout passes should only follow list updates,
+// never the scrolling itself. Also checks the setup that keeps binds cheap: row text arrives as
+// precomputed text futures, the list has a fixed size and the record pool keeps LOG_POOL_SIZE views.
+//
+// The app runs on its own database file, opened here before any activity touches FuelDatabase, and
+// is seeded through the CSV importer so vehicle_stats and the monthly rollup stay consistent.
+// The file is dropped at the start of the next run; the user's fuelwise_db is never opened.
+@RunWith(AndroidJUnit4.class)
+public class FuelLogScrollTest {
+
+    private static final String TAG = "FuelLogScroll";
+    private static final String DB_NAME = "fuelwise_scroll_test.db";
+
+    private static final int RECORDS = 3_000;
+    private static final int FLINGS = 12;
+    // Rows prefetched near the end of a fling that never scroll into view
+    private static final int PREFETCH_SLACK = 4;
+    private static final long TIMEOUT_MS = 30_000;
+
+    @BeforeClass
+    public static void openTestDatabase() {
+        Context context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        FuelDatabase db = FuelDatabase.getInstance(context, FuelDatabaseConfig.defaults().withName(DB_NAME));
+        // The singleton was already open on another file; seeding it would touch real data
+        assertEquals(DB_NAME, db.getOpenHelper().getDatabaseName());
+
+        // One fill-up a day going back from today, so every month gets a header
+        long today = System.currentTimeMillis() / 86_400_000L;
+        StringBuilder csv = new StringBuilder("vehicle_name,date,volume_liters,cost_rm,mileage_km\n");
+        for (int i = 0; i < RECORDS; i++) {
+            csv.append("Scroll test,").append(EpochDays.toIso(today - RECORDS + 1 + i)).append(',')
+                    .append(30 + i % 7).append(',').append(100 + i % 13).append(',').append((i + 1) * 350)
+                    .append('\n');
+        }
+        FuelCsvImporter.Status status = new FuelCsvImporter(db).run(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), s -> { });
+        assertNull(status.error);
+        assertEquals(RECORDS, status.imported);
+    }
+
+    @Test
+    public void logIsConfiguredForCheapBinds() throws Exception {
+        try (ActivityScenario<FuelLogActivity> scenario = ActivityScenario.launch(FuelLogActivity.class)) {
+            RecyclerView rv = recyclerView(scenario);
+            waitForRows(rv);
+
+            assertTrue(onMain(rv::hasFixedSize));
+            assertTrue(onMain(() -> rv.getLayoutManager().isItemPrefetchEnabled()));
+
+            // The pool keeps at most LOG_POOL_SIZE record rows, however many are offered
+            int pooled = onMain(() -> {
+                RecyclerView.RecycledViewPool pool = rv.getRecycledViewPool();
+                pool.clear();
+                for (int i = 0; i < 2 * FuelLogActivity.LOG_POOL_SIZE; i++) {
+                    pool.putRecycledView(rv.getAdapter().createViewHolder(rv, FuelLogAdapter.VIEW_TYPE_RECORD));
+                }
+                return pool.getRecycledViewCount(FuelLogAdapter.VIEW_TYPE_RECORD);
+            });
+            assertEquals(FuelLogActivity.LOG_POOL_SIZE, pooled);
+
+            // A laid-out row shows text that was set through setTextFuture
+            TextView name = onMain(() -> (TextView) firstRecordRow(rv).itemView.findViewById(R.id.tvVehicleName));
+            assertTrue(name instanceof AppCompatTextView);
+            CharSequence text = onMain(name::getText);
+            assertTrue(text.length() > 0);
+            // From API 29 the consumed future leaves the platform PrecomputedText as the text
+            if (Build.VERSION.SDK_INT >= 29) assertTrue(text instanceof PrecomputedText);
+        }
+    }
+
+    @Test
+    public void flingingBindsEachRowOnceAndDoesNotRelayout() throws Exception {
+        try (ActivityScenario<FuelLogActivity> scenario = ActivityScenario.launch(FuelLogActivity.class)) {
+            RecyclerView rv = recyclerView(scenario);
+            waitForRows(rv);
+            FuelLogAdapter adapter = onMain(() -> (FuelLogAdapter) rv.getAdapter());
+
+            Counters counters = new Counters();
+            int bindsBefore = onMain(adapter::fullBindCount);
+            runOnMain(() -> counters.attach(rv));
+
+            // Down through the pages (loading more as it goes), then back up
+            for (int i = 0; i < FLINGS; i++) {
+                int direction = i < FLINGS / 2 ? 1 : -1;
+                runOnMain(() -> rv.fling(0, direction * rv.getMaxFlingVelocity()));
+                waitForIdle(rv);
+            }
+
+            runOnMain(() -> counters.detach(rv));
+            int binds = onMain(adapter::fullBindCount) - bindsBefore;
+
+            Log.i(TAG, binds + " binds, " + counters.attached + " rows attached, " + counters.changedRows
+                    + " rows changed, " + counters.layouts + " layout passes, " + counters.updates + " list updates");
+            assertTrue("the flings did not scroll", counters.attached > 0);
+            assertEquals("the whole list was invalidated", 0, counters.dataSetChanges);
+            // Rows coming back from the view cache need no bind; everything else binds once
+            assertTrue(binds + " binds for " + counters.attached + " attached rows",
+                    binds <= counters.attached + counters.changedRows + FLINGS * PREFETCH_SLACK);
+            // Scrolling itself never requests a layout; only list updates (page loads, totals) may
+            assertTrue(counters.layouts + " layout passes for " + counters.updates + " list updates",
+                    counters.layouts <= counters.updates + FLINGS);
+        }
+    }
+
+    // Main-thread counters for one run of flings
+    private static final class Counters extends RecyclerView.AdapterDataObserver
+            implements RecyclerView.OnChildAttachStateChangeListener, ViewTreeObserver.OnGlobalLayoutListener {
+        int attached;
+        int layouts;
+        int updates;
+        int changedRows;
+        int dataSetChanges;
+
+        void attach(RecyclerView rv) {
+            rv.addOnChildAttachStateChangeListener(this);
+            rv.getViewTreeObserver().addOnGlobalLayoutListener(this);
+            rv.getAdapter().registerAdapterDataObserver(this);
+        }
+
+        void detach(RecyclerView rv) {
+            rv.removeOnChildAttachStateChangeListener(this);
+            rv.getViewTreeObserver().removeOnGlobalLayoutListener(this);
+            rv.getAdapter().unregisterAdapterDataObserver(this);
+        }
+
+        @Override
+        public void onChildViewAttachedToWindow(@NonNull View view) {
+            attached++;
+        }
+
+        @Override
+        public void onChildViewDetachedFromWindow(@NonNull View view) {
+        }
+
+        @Override
+        public void onGlobalLayout() {
+            layouts++;
+        }
+
+        @Override
+        public void onChanged() {
+            updates++;
+            dataSetChanges++;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            updates++;
+            changedRows += itemCount;
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            updates++;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            updates++;
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            updates++;
+        }
+    }
+
+    private static RecyclerView recyclerView(ActivityScenario<FuelLogActivity> scenario) {
+        AtomicReference<RecyclerView> rv = new AtomicReference<>();
+        scenario.onActivity(a -> rv.set(a.findViewById(R.id.rvRecords)));
+        return rv.get();
+    }
+
+    // Waits until the first page is laid out
+    private static void waitForRows(RecyclerView rv) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (true) {
+            boolean ready = onMain(() -> firstRecordRow(rv) != null);
+            if (ready) return;
+            assertTrue("the log did not show any rows", System.currentTimeMillis() < deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private static void waitForIdle(RecyclerView rv) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        // Let the fling start before polling for the idle state
+        Thread.sleep(100);
+        while (onMain(() -> rv.getScrollState() != RecyclerView.SCROLL_STATE_IDLE)) {
+            assertTrue("the fling did not settle", System.currentTimeMillis() < deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private static RecyclerView.ViewHolder firstRecordRow(RecyclerView rv) {
+        for (int i = 0; i < rv.getChildCount(); i++) {
+            RecyclerView.ViewHolder h = rv.getChildViewHolder(rv.getChildAt(i));
+            if (h.getItemViewType() == FuelLogAdapter.VIEW_TYPE_RECORD) return h;
+        }
+        return null;
+    }
+
+    private static void runOnMain(Runnable r) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(r);
+    }
+
+    // Reads view state on the main thread; assertions stay on the test thread
+    private static <T> T onMain(Supplier<T> read) {
+        AtomicReference<T> out = new AtomicReference<>();
+        runOnMain(() -> out.set(read.get()));
+        return out.get();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.fuelwiselog;
+
+import android.app.Application;
+
+import com.example.fuelwiselog.util.Prefs;
+
+// Application entry point: starts loading the settings in the background before the first screen needs them
+public class FuelWiseApp extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        Prefs.preload(this);
+    }
+}
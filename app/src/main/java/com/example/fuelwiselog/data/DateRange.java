@@ -0,0 +1,53 @@
+package com.example.fuelwiselog.data;
+
+import com.example.fuelwiselog.core.EpochDays;
+
+import java.util.Calendar;
+
+// Inclusive range of days (days since 1970-01-01) for the date-range record queries.
+// "Today" comes from the device's local calendar, like the dates AddRecordActivity stores.
+public final class DateRange {
+
+    public final long fromEpochDay;
+    public final long toEpochDay;
+
+    public DateRange(long fromEpochDay, long toEpochDay) {
+        this.fromEpochDay = Math.min(fromEpochDay, toEpochDay);
+        this.toEpochDay = Math.max(fromEpochDay, toEpochDay);
+    }
+
+    // Both ends as "YYYY-MM-DD"
+    public static DateRange of(String fromIso, String toIso) {
+        return new DateRange(EpochDays.fromIso(fromIso), EpochDays.fromIso(toIso));
+    }
+
+    // From the 1st of the current month up to today
+    public static DateRange thisMonth() {
+        Calendar c = Calendar.getInstance();
+        long today = today(c);
+        return new DateRange(today - (c.get(Calendar.DAY_OF_MONTH) - 1), today);
+    }
+
+    // The last n days including today (n = 30 -> today and the 29 days before it)
+    public static DateRange lastDays(int n) {
+        long today = today(Calendar.getInstance());
+        return new DateRange(today - Math.max(0, n - 1), today);
+    }
+
+    private static long today(Calendar c) {
+        return EpochDays.fromCivil(c.get(Calendar.YEAR), c.get(Calendar.MONTH) + 1, c.get(Calendar.DAY_OF_MONTH));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DateRange)) return false;
+        DateRange r = (DateRange) o;
+        return fromEpochDay == r.fromEpochDay && toEpochDay == r.toEpochDay;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(fromEpochDay) + Long.hashCode(toEpochDay);
+    }
+}
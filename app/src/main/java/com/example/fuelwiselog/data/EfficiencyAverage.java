@@ -0,0 +1,16 @@
+package com.example.fuelwiselog.data;
+
+import androidx.annotation.Nullable;
+
+// Result row of the rolling-average queries in FuelRecordDao
+public class EfficiencyAverage {
+
+    // Number of fill-ups in the window that have efficiency (i.e. a previous fill-up to compare with)
+    public int intervals;
+
+    // Averages over those fill-ups; null when intervals is 0
+    @Nullable
+    public Double avgRmPerKm;
+    @Nullable
+    public Double avgLitersPer100Km;
+}
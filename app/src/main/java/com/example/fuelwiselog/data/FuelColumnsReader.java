@@ -0,0 +1,40 @@
+package com.example.fuelwiselog.data;
+
+import android.database.Cursor;
+
+import com.example.fuelwiselog.core.FuelColumns;
+
+// Reads a FuelRecordDao.COLUMNS cursor straight into primitive columns: no FuelRecord per row,
+// no boxed Doubles for the nullable efficiency fields (they become NaN). Closes the cursor.
+final class FuelColumnsReader {
+
+    private FuelColumnsReader() {}
+
+    static FuelColumns read(Cursor c) {
+        try {
+            int id = c.getColumnIndexOrThrow("id");
+            int vehicleId = c.getColumnIndexOrThrow("vehicleId");
+            int epochDay = c.getColumnIndexOrThrow("dateEpochDay");
+            int mileage = c.getColumnIndexOrThrow("mileageKm");
+            int cost = c.getColumnIndexOrThrow("costRm");
+            int liters = c.getColumnIndexOrThrow("volumeLiters");
+            int distance = c.getColumnIndexOrThrow("distanceKm");
+            int rmPerKm = c.getColumnIndexOrThrow("rmPerKm");
+            int lPer100 = c.getColumnIndexOrThrow("litersPer100Km");
+
+            FuelColumns.Builder b = new FuelColumns.Builder(c.getCount());
+            while (c.moveToNext()) {
+                b.add(c.getLong(id), c.getLong(vehicleId), c.getInt(epochDay),
+                        c.getDouble(mileage), c.getDouble(cost), c.getDouble(liters),
+                        nullableDouble(c, distance), nullableDouble(c, rmPerKm), nullableDouble(c, lPer100));
+            }
+            return b.build();
+        } finally {
+            c.close();
+        }
+    }
+
+    private static double nullableDouble(Cursor c, int column) {
+        return c.isNull(column) ? Double.NaN : c.getDouble(column);
+    }
+}
@@ -0,0 +1,402 @@
+package com.example.fuelwiselog.data;
+
+import androidx.annotation.Nullable;
+
+import com.example.fuelwiselog.core.EpochDays;
+import com.example.fuelwiselog.core.Interval;
+import com.example.fuelwiselog.core.VehicleTotals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams a CSV file of fill-ups into the database.
+ * <p>
+ * The calling thread parses the file line by line while {@link FuelDatabase#DB_EXECUTOR}, the single
+ * writer, inserts finished chunks of {@link #CHUNK_SIZE} rows, each in its own transaction. At most
+ * {@link #MAX_PENDING_CHUNKS} chunks wait for the writer, so memory stays bounded whatever the file size.
+ * <p>
+ * Expected header (case-insensitive, any order, extra columns ignored so exported files re-import):
+ * {@code vehicle_name, vehicle_type, vehicle_color, plate_number, date, volume_liters, cost_rm, mileage_km}.
+ * Only vehicle_name, date, volume_liters, cost_rm and mileage_km are required. Vehicles are matched by
+ * name + plate and created when missing. Quoted fields may contain commas and doubled quotes, but not line breaks.
+ */
+public class FuelCsvImporter {
+
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_PENDING_CHUNKS = 4;
+    // Only the first few problems are kept for the summary
+    private static final int MAX_PROBLEMS = 20;
+
+    private static final String DEFAULT_TYPE = "Car";
+    private static final String DEFAULT_COLOR = "#B4A7D6";
+
+    // Progress and final result; a new immutable snapshot is reported after every chunk
+    public static final class Status {
+        public final long linesRead;
+        public final long imported;
+        public final long skipped;
+        public final int vehiclesCreated;
+        public final boolean finished;
+        public final boolean cancelled;
+        @Nullable public final String error;
+        public final List<String> problems;
+
+        Status(long linesRead, long imported, long skipped, int vehiclesCreated, boolean finished,
+               boolean cancelled, @Nullable String error, List<String> problems) {
+            this.linesRead = linesRead;
+            this.imported = imported;
+            this.skipped = skipped;
+            this.vehiclesCreated = vehiclesCreated;
+            this.finished = finished;
+            this.cancelled = cancelled;
+            this.error = error;
+            this.problems = problems;
+        }
+    }
+
+    // Final status for an import that could not start (e.g. the file could not be opened)
+    static Status failed(String error) {
+        return new Status(0, 0, 0, 0, true, false, error, Collections.emptyList());
+    }
+
+    public interface Listener {
+        // Called from background threads
+        void onStatus(Status status);
+    }
+
+    // One parsed line, ready for the writer
+    private static final class Row {
+        final long line;
+        final String vehicleName;
+        final String vehicleType;
+        final String vehicleColor;
+        @Nullable final String plate;
+        final String dateIso;
+        final double liters;
+        final double cost;
+        final double mileage;
+
+        Row(long line, String vehicleName, String vehicleType, String vehicleColor, @Nullable String plate,
+            String dateIso, double liters, double cost, double mileage) {
+            this.line = line;
+            this.vehicleName = vehicleName;
+            this.vehicleType = vehicleType;
+            this.vehicleColor = vehicleColor;
+            this.plate = plate;
+            this.dateIso = dateIso;
+            this.liters = liters;
+            this.cost = cost;
+            this.mileage = mileage;
+        }
+    }
+
+    private final FuelDatabase db;
+    private final FuelRecordDao fuelRecordDao;
+    private final VehicleDao vehicleDao;
+    // cancelled: the user asked to stop; stopped: no further chunk may be written (cancel or error)
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+    // Counters are shared by the parser (bad lines) and the writer (rows)
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicInteger vehiclesCreated = new AtomicInteger();
+    private final List<String> problems = Collections.synchronizedList(new ArrayList<>());
+
+    // Writer-owned (only touched by chunk tasks on DB_EXECUTOR)
+    private Map<String, Long> vehicleIdByKey;
+
+    public FuelCsvImporter(FuelDatabase db) {
+        this.db = db;
+        this.fuelRecordDao = db.fuelRecordDao();
+        this.vehicleDao = db.vehicleDao();
+    }
+
+    // Stops after the chunk being written; chunks already committed stay in the database
+    public void cancel() {
+        cancelled.set(true);
+        stopped.set(true);
+    }
+
+    /**
+     * Runs the import on the calling thread (never the UI thread) and returns the final status.
+     * The stream is closed when done.
+     */
+    public Status run(InputStream in, Listener listener) {
+        ArrayDeque<Future<?>> pending = new ArrayDeque<>();
+        long lineNo = 0;
+        String error = null;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String headerLine = reader.readLine();
+            lineNo++;
+            Map<String, Integer> header = headerLine == null ? null : parseHeader(headerLine);
+            if (header == null) {
+                error = "Missing header. Required: vehicle_name, date, volume_liters, cost_rm, mileage_km";
+            } else {
+                List<String> fields = new ArrayList<>();
+                List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+                String line;
+                while (!stopped.get() && (line = reader.readLine()) != null) {
+                    lineNo++;
+                    if (line.trim().isEmpty()) continue;
+
+                    Row row = parseRow(lineNo, line, header, fields);
+                    if (row != null) {
+                        chunk.add(row);
+                    } else {
+                        skipped.incrementAndGet();
+                        addProblem("Line " + lineNo + ": could not be read");
+                    }
+
+                    if (chunk.size() == CHUNK_SIZE) {
+                        submitChunk(pending, chunk, lineNo, listener);
+                        chunk = new ArrayList<>(CHUNK_SIZE);
+                    }
+                }
+                if (!chunk.isEmpty() && !stopped.get()) submitChunk(pending, chunk, lineNo, listener);
+            }
+            // Let the writer finish what was handed over.
+            while (!pending.isEmpty()) pending.removeFirst().get();
+        } catch (IOException e) {
+            error = "Could not read file: " + e.getMessage();
+        } catch (ExecutionException e) {
+            error = "Import failed: " + e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Import interrupted";
+        }
+
+        // Any chunk still queued after an error turns into a no-op.
+        if (error != null) stopped.set(true);
+        // Many rows changed at once, so observers reload rather than patch. Queued behind the last chunk on
+        // the writer, so listeners run on the DB thread after every import transaction has committed.
+        FuelDatabase.DB_EXECUTOR.execute(() -> FuelRecordChanges.publish(FuelRecordChange.reset()));
+
+        Status result = status(lineNo, true, error);
+        listener.onStatus(result);
+        return result;
+    }
+
+    // Hands a chunk to the writer, first waiting for the oldest one if too many are queued
+    private void submitChunk(ArrayDeque<Future<?>> pending, List<Row> chunk, long linesRead, Listener listener)
+            throws ExecutionException, InterruptedException {
+        while (pending.size() >= MAX_PENDING_CHUNKS) pending.removeFirst().get();
+        pending.addLast(FuelDatabase.DB_EXECUTOR.submit(() -> {
+            if (stopped.get()) return;
+            db.runInTransaction(() -> writeChunk(chunk));
+            listener.onStatus(status(linesRead, false, null));
+        }));
+    }
+
+    // ---------------- Writer (DB_EXECUTOR, inside a transaction) ----------------
+
+    private void writeChunk(List<Row> chunk) {
+        if (vehicleIdByKey == null) {
+            vehicleIdByKey = new HashMap<>();
+            for (Vehicle v : vehicleDao.getAllSync()) vehicleIdByKey.put(vehicleKey(v.getName(), v.getPlateNumber()), v.getId());
+        }
+
+        // Last fill-up per vehicle, seeded from the database once per chunk so interleaved
+        // user writes between chunks are respected.
+        Map<Long, FuelRecord> lastByVehicle = new HashMap<>();
+        // Totals of the chunk per vehicle and per vehicle month, applied in a single update each
+        Map<Long, VehicleTotals> deltas = new HashMap<>();
+        Map<Long, Map<Integer, VehicleTotals>> monthDeltas = new HashMap<>();
+        List<FuelRecord> batch = new ArrayList<>(chunk.size());
+
+        for (Row row : chunk) {
+            long vehicleId = resolveVehicle(row);
+
+            FuelRecord prev;
+            if (lastByVehicle.containsKey(vehicleId)) {
+                prev = lastByVehicle.get(vehicleId);
+            } else {
+                prev = fuelRecordDao.findLast(vehicleId);
+            }
+
+            // Same rule as AddRecordActivity: mileage must keep increasing per vehicle.
+            if (prev != null && row.mileage <= prev.getMileageKm()) {
+                skipped.incrementAndGet();
+                addProblem("Line " + row.line + ": mileage " + (long) row.mileage
+                        + " must be greater than " + (long) prev.getMileageKm());
+                lastByVehicle.put(vehicleId, prev);
+                continue;
+            }
+
+            FuelRecord r = new FuelRecord(vehicleId, row.dateIso, row.liters, row.cost, row.mileage);
+            Interval interval = r.applyEfficiencyFrom(prev);
+            batch.add(r);
+            lastByVehicle.put(vehicleId, r);
+
+            VehicleTotals d = deltas.get(vehicleId);
+            if (d == null) {
+                d = new VehicleTotals();
+                deltas.put(vehicleId, d);
+            }
+            d.add(row.cost, row.liters, row.mileage, interval);
+
+            Map<Integer, VehicleTotals> months = monthDeltas.get(vehicleId);
+            if (months == null) {
+                months = new HashMap<>();
+                monthDeltas.put(vehicleId, months);
+            }
+            int yearMonth = EpochDays.yearMonth(r.getDateEpochDay());
+            VehicleTotals m = months.get(yearMonth);
+            if (m == null) {
+                m = new VehicleTotals();
+                months.put(yearMonth, m);
+            }
+            m.add(row.cost, row.liters, row.mileage, interval);
+        }
+
+        // Appended rows have no successor, so only the rows themselves and the totals change.
+        fuelRecordDao.insertRows(batch);
+        for (Map.Entry<Long, VehicleTotals> e : deltas.entrySet()) {
+            VehicleTotals d = e.getValue();
+            fuelRecordDao.ensureStats(e.getKey());
+            fuelRecordDao.applyStatsDelta(e.getKey(), d.recordCount, d.totalCostRm, d.totalLiters,
+                    d.efficiencyCount, d.sumDistanceKm, d.sumRmPerKm, d.sumLitersPer100Km);
+        }
+        for (Map.Entry<Long, Map<Integer, VehicleTotals>> v : monthDeltas.entrySet()) {
+            for (Map.Entry<Integer, VehicleTotals> e : v.getValue().entrySet()) {
+                VehicleTotals m = e.getValue();
+                fuelRecordDao.ensureMonth(v.getKey(), e.getKey());
+                fuelRecordDao.applyMonthDelta(v.getKey(), e.getKey(), m.recordCount, m.totalCostRm,
+                        m.totalLiters, m.efficiencyCount, m.sumDistanceKm);
+            }
+        }
+        imported.addAndGet(batch.size());
+    }
+
+    private long resolveVehicle(Row row) {
+        String key = vehicleKey(row.vehicleName, row.plate);
+        Long id = vehicleIdByKey.get(key);
+        if (id != null) return id;
+
+        long newId = vehicleDao.insert(new Vehicle(row.vehicleName, row.vehicleType, row.vehicleColor, row.plate));
+        vehicleIdByKey.put(key, newId);
+        vehiclesCreated.incrementAndGet();
+        return newId;
+    }
+
+    private void addProblem(String problem) {
+        synchronized (problems) {
+            if (problems.size() < MAX_PROBLEMS) problems.add(problem);
+        }
+    }
+
+    private Status status(long linesRead, boolean finished, @Nullable String error) {
+        List<String> copy;
+        synchronized (problems) {
+            copy = new ArrayList<>(problems);
+        }
+        return new Status(linesRead, imported.get(), skipped.get(), vehiclesCreated.get(), finished,
+                cancelled.get(), error, copy);
+    }
+
+    // ---------------- Parsing (calling thread) ----------------
+
+    // Column name -> index; null if a required column is missing
+    @Nullable
+    private static Map<String, Integer> parseHeader(String line) {
+        List<String> names = new ArrayList<>();
+        splitCsvLine(stripBom(line), names);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) header.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+
+        String[] required = {"vehicle_name", "date", "volume_liters", "cost_rm", "mileage_km"};
+        for (String r : required) if (!header.containsKey(r)) return null;
+        return header;
+    }
+
+    // Returns null when the line is malformed or fails validation
+    @Nullable
+    private static Row parseRow(long lineNo, String line, Map<String, Integer> header, List<String> fields) {
+        splitCsvLine(line, fields);
+        try {
+            String name = field(fields, header, "vehicle_name");
+            String date = field(fields, header, "date");
+            if (name.isEmpty() || !EpochDays.isIso(date)) return null;
+
+            double liters = Double.parseDouble(field(fields, header, "volume_liters"));
+            double cost = Double.parseDouble(field(fields, header, "cost_rm"));
+            double mileage = Double.parseDouble(field(fields, header, "mileage_km"));
+            if (!(liters > 0) || !(cost > 0) || !(mileage > 0)) return null;
+
+            String type = field(fields, header, "vehicle_type");
+            String color = field(fields, header, "vehicle_color");
+            String plate = field(fields, header, "plate_number");
+
+            return new Row(lineNo, name,
+                    type.isEmpty() ? DEFAULT_TYPE : type,
+                    color.startsWith("#") ? color : DEFAULT_COLOR,
+                    plate.isEmpty() ? null : plate.toUpperCase(Locale.ROOT),
+                    date, liters, cost, mileage);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> header, String name) {
+        Integer i = header.get(name);
+        if (i == null || i >= fields.size()) return "";
+        return fields.get(i).trim();
+    }
+
+    // Splits one CSV line into out (cleared first); supports quoted fields with "" escapes
+    static void splitCsvLine(String line, List<String> out) {
+        out.clear();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        out.add(sb.toString());
+    }
+
+    // Lookup key of a vehicle: case-insensitive name plus normalised plate
+    private static String vehicleKey(String name, @Nullable String plate) {
+        String p = plate == null ? "" : plate.trim().toUpperCase(Locale.ROOT);
+        return name.trim().toLowerCase(Locale.ROOT) + "|" + p;
+    }
+
+    private static String stripBom(String s) {
+        return !s.isEmpty() && s.charAt(0) == '﻿' ? s.substring(1) : s;
+    }
+}
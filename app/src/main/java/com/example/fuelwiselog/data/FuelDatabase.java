@@ -10,28 +10,62 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 // Main database configuration: defines the tables (Entities) and version number
-@Database(entities = {Vehicle.class, FuelRecord.class}, version = 2, exportSchema = false)
+@Database(entities = {Vehicle.class, FuelRecord.class, VehicleStats.class, MonthlyRollup.class}, version = 7, exportSchema = false)
 public abstract class FuelDatabase extends RoomDatabase {
 
     // Data Access Objects (DAOs) for performing queries on tables
     public abstract VehicleDao vehicleDao();
     public abstract FuelRecordDao fuelRecordDao();
+    public abstract VehicleStatsDao vehicleStatsDao();
+    public abstract MonthlyRollupDao monthlyRollupDao();
 
-    // Background thread service to handle database writes without freezing the UI
+    // Background thread service to handle database writes without freezing the UI.
+    // It is the only writer; reads use the query pool from FuelDatabaseConfig.
     public static final ExecutorService DB_EXECUTOR = Executors.newSingleThreadExecutor();
 
+    // Coalesces repository writes into shared transactions on DB_EXECUTOR (see FuelWriteQueue)
+    private volatile FuelWriteQueue writeQueue;
+
+    FuelWriteQueue writeQueue() {
+        if (writeQueue == null) {
+            synchronized (this) {
+                if (writeQueue == null) writeQueue = new FuelWriteQueue(this);
+            }
+        }
+        return writeQueue;
+    }
+
+    // Shared id -> Vehicle lookup, reloaded when the vehicles table changes (see VehicleCache)
+    private volatile VehicleCache vehicleCache;
+
+    VehicleCache vehicleCache() {
+        if (vehicleCache == null) {
+            synchronized (this) {
+                if (vehicleCache == null) vehicleCache = new VehicleCache(this);
+            }
+        }
+        return vehicleCache;
+    }
+
     // Singleton instance to ensure only one database connection exists at a time
     private static volatile FuelDatabase INSTANCE;
 
     public static FuelDatabase getInstance(Context context) {
+        return getInstance(context, FuelDatabaseConfig.defaults());
+    }
+
+    // The config only takes effect on the first call, when the database is opened
+    public static FuelDatabase getInstance(Context context, FuelDatabaseConfig config) {
         // Double-checked locking to securely create the instance if it doesn't exist
         if (INSTANCE == null) {
             synchronized (FuelDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
-                                    FuelDatabase.class, "fuelwise_db")
-                            // Rebuilds the database if the version number changes (simple for development)
-                            .fallbackToDestructiveMigration()
+                    RoomDatabase.Builder<FuelDatabase> builder = Room.databaseBuilder(
+                            context.getApplicationContext(), FuelDatabase.class, config.name);
+                    INSTANCE = config.applyTo(builder)
+                            // Upgrades keep the user's data; only pre-release version 1 is rebuilt
+                            .addMigrations(FuelMigrations.ALL)
+                            .fallbackToDestructiveMigrationFrom(1)
                             .build();
                 }
             }
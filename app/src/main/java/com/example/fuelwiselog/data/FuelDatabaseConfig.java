@@ -0,0 +1,79 @@
+package com.example.fuelwiselog.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Connection and threading setup for FuelDatabase, kept in one place instead of Room defaults.
+// Writes stay on the single DB_EXECUTOR thread; reads (LiveData queries, paging) get their own pool.
+// With WAL, readers see the last committed snapshot and never wait for the writer, so the dashboard
+// and log keep loading while a long import or cascade delete is committing.
+public final class FuelDatabaseConfig {
+
+    public static final String DEFAULT_NAME = "fuelwise_db";
+
+    // WAL lets readers run alongside the single writer
+    final RoomDatabase.JournalMode journalMode;
+    // Threads for Room's query executor (LiveData refreshes and invalidation checks)
+    final int queryThreads;
+    // In WAL mode NORMAL only syncs at checkpoints; a crash can drop the last commits but never corrupts
+    final boolean synchronousNormal;
+    // Database file name; instrumented tests open their own file instead of the user's data
+    final String name;
+
+    public FuelDatabaseConfig(RoomDatabase.JournalMode journalMode, int queryThreads, boolean synchronousNormal) {
+        this(journalMode, queryThreads, synchronousNormal, DEFAULT_NAME);
+    }
+
+    private FuelDatabaseConfig(RoomDatabase.JournalMode journalMode, int queryThreads, boolean synchronousNormal,
+                               String name) {
+        this.journalMode = journalMode;
+        this.queryThreads = Math.max(1, queryThreads);
+        this.synchronousNormal = synchronousNormal;
+        this.name = name;
+    }
+
+    // Same settings, stored in another database file
+    public FuelDatabaseConfig withName(String name) {
+        return new FuelDatabaseConfig(journalMode, queryThreads, synchronousNormal, name);
+    }
+
+    // WAL, up to four reader threads, synchronous = NORMAL
+    public static FuelDatabaseConfig defaults() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        return new FuelDatabaseConfig(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING,
+                Math.min(4, Math.max(2, cpus)), true);
+    }
+
+    // Applies the settings to a builder; the transaction executor is the single writer thread
+    <T extends RoomDatabase> RoomDatabase.Builder<T> applyTo(RoomDatabase.Builder<T> builder) {
+        builder.setJournalMode(journalMode)
+                .setQueryExecutor(newQueryExecutor())
+                .setTransactionExecutor(FuelDatabase.DB_EXECUTOR);
+        if (synchronousNormal && journalMode != RoomDatabase.JournalMode.TRUNCATE) {
+            builder.addCallback(new RoomDatabase.Callback() {
+                @Override
+                public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                    // PRAGMA returns a row, so it has to go through query() rather than execSQL().
+                    db.query("PRAGMA synchronous = NORMAL").close();
+                }
+            });
+        }
+        return builder;
+    }
+
+    private ExecutorService newQueryExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "fuel-db-read-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return Executors.newFixedThreadPool(queryThreads, factory);
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.fuelwiselog.data;
+
+import android.database.Cursor;
+import android.util.JsonWriter;
+
+import androidx.annotation.Nullable;
+
+import com.example.fuelwiselog.core.Interval;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Writes the full fuel history as CSV or JSON straight from a database cursor.
+ * <p>
+ * Rows are read in (vehicleId, mileageKm) order with the vehicle columns joined in, and each row
+ * is written to a buffered stream before the next is read. Efficiency is derived from the previous
+ * row of the same vehicle as the cursor advances, so memory use does not grow with the table.
+ * The CSV columns are a superset of what {@link FuelCsvImporter} reads, so an export re-imports.
+ * <p>
+ * Rows are read in keyset chunks of {@link #CHUNK_SIZE}, each one short auto-commit query that seeks the
+ * (vehicleId, mileageKm) index (whose entries end in the row id) past the last row written. No
+ * transaction is held while the file is written, so queued writes and Room's readers never wait for the
+ * export. Every row left untouched during the export is written exactly once. A row inserted or deleted
+ * meanwhile is included only if it lies ahead of the current position, and a row whose mileage is edited
+ * mid-export can be missed or written twice.
+ */
+public class FuelExporter {
+
+    public enum Format { CSV, JSON }
+
+    // Outcome of one export; error is null on success
+    public static final class Result {
+        public final long rows;
+        @Nullable public final String error;
+
+        Result(long rows, @Nullable String error) {
+            this.rows = rows;
+            this.error = error;
+        }
+    }
+
+    public interface Listener {
+        // Called from a background thread
+        void onFinished(Result result);
+    }
+
+    // Rows per query; a chunk fits in one CursorWindow, so each query runs once
+    static final int CHUNK_SIZE = 500;
+
+    private static final String COLUMNS = "SELECT v.name, v.type, v.colorHex, v.plateNumber,"
+            + " r.vehicleId, r.dateIso, r.volumeLiters, r.costRm, r.mileageKm, r.id"
+            + " FROM fuel_records r JOIN vehicles v ON v.id = r.vehicleId";
+
+    // Rows of one vehicle after (mileageKm, id); the mileage bound keeps it a range seek on the index
+    private static final String AFTER_IN_VEHICLE = COLUMNS
+            + " WHERE r.vehicleId = ? AND r.mileageKm >= ? AND (r.mileageKm > ? OR r.id > ?)"
+            + " ORDER BY r.mileageKm ASC, r.id ASC LIMIT " + CHUNK_SIZE;
+
+    // Rows of the vehicles after vehicleId
+    private static final String FROM_NEXT_VEHICLE = COLUMNS
+            + " WHERE r.vehicleId > ?"
+            + " ORDER BY r.vehicleId ASC, r.mileageKm ASC, r.id ASC LIMIT " + CHUNK_SIZE;
+
+    // Column positions in the queries
+    private static final int COL_NAME = 0;
+    private static final int COL_TYPE = 1;
+    private static final int COL_COLOR = 2;
+    private static final int COL_PLATE = 3;
+    private static final int COL_VEHICLE_ID = 4;
+    private static final int COL_DATE = 5;
+    private static final int COL_LITERS = 6;
+    private static final int COL_COST = 7;
+    private static final int COL_MILEAGE = 8;
+    private static final int COL_ID = 9;
+
+    private static final String[] CSV_HEADER = {
+            "vehicle_name", "vehicle_type", "vehicle_color", "plate_number", "date",
+            "volume_liters", "cost_rm", "mileage_km", "distance_km", "rm_per_km", "liters_per_100km"
+    };
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FuelDatabase db;
+
+    public FuelExporter(FuelDatabase db) {
+        this.db = db;
+    }
+
+    /**
+     * Runs the export on the calling thread (never the UI thread). The stream is closed when done.
+     */
+    public Result run(OutputStream out, Format format) {
+        Position pos = new Position();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            RowWriter rowWriter = format == Format.JSON ? new JsonRowWriter(writer) : new CsvRowWriter(writer);
+            rowWriter.begin();
+
+            // A full chunk may stop inside a vehicle, so the next one continues after its last row;
+            // a short one ends the vehicle (or, from FROM_NEXT_VEHICLE, the table).
+            boolean inVehicle = false;
+            while (true) {
+                int n = writeChunk(rowWriter, pos, inVehicle);
+                if (n == CHUNK_SIZE) inVehicle = true;
+                else if (inVehicle) inVehicle = false;
+                else break;
+            }
+            rowWriter.end();
+        } catch (IOException e) {
+            return new Result(pos.rows, "Could not write file: " + e.getMessage());
+        } catch (RuntimeException e) {
+            return new Result(pos.rows, "Export failed: " + e);
+        }
+        return new Result(pos.rows, null);
+    }
+
+    // Last row written; efficiency is derived from it, and the next chunk starts after it
+    private static final class Position {
+        long vehicleId = Long.MIN_VALUE;
+        double mileage;
+        long id;
+        long rows;
+    }
+
+    // Writes the next chunk and returns its row count
+    private int writeChunk(RowWriter rowWriter, Position pos, boolean inVehicle) throws IOException {
+        Object[] args = inVehicle
+                ? new Object[]{pos.vehicleId, pos.mileage, pos.mileage, pos.id}
+                : new Object[]{pos.vehicleId};
+        int n = 0;
+        try (Cursor c = db.query(inVehicle ? AFTER_IN_VEHICLE : FROM_NEXT_VEHICLE, args)) {
+            while (c.moveToNext()) {
+                long vehicleId = c.getLong(COL_VEHICLE_ID);
+                double mileage = c.getDouble(COL_MILEAGE);
+                double liters = c.getDouble(COL_LITERS);
+                double cost = c.getDouble(COL_COST);
+
+                // Same math as FuelRecord.applyEfficiencyFrom().
+                Interval interval = vehicleId == pos.vehicleId
+                        ? Interval.between(pos.mileage, mileage, cost, liters) : null;
+
+                rowWriter.row(c.getString(COL_NAME), c.getString(COL_TYPE), c.getString(COL_COLOR),
+                        c.getString(COL_PLATE), c.getString(COL_DATE), liters, cost, mileage,
+                        interval == null ? null : interval.distanceKm,
+                        interval == null ? null : interval.rmPerKm,
+                        interval == null ? null : interval.litersPer100Km);
+
+                pos.vehicleId = vehicleId;
+                pos.mileage = mileage;
+                pos.id = c.getLong(COL_ID);
+                pos.rows++;
+                n++;
+            }
+        }
+        return n;
+    }
+
+    // Output format of one row at a time
+    private interface RowWriter {
+        void begin() throws IOException;
+
+        void row(String name, String type, String color, @Nullable String plate, String date,
+                 double liters, double cost, double mileage,
+                 @Nullable Double distance, @Nullable Double rmPerKm, @Nullable Double litersPer100Km)
+                throws IOException;
+
+        void end() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer w;
+
+        CsvRowWriter(Writer w) {
+            this.w = w;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            for (int i = 0; i < CSV_HEADER.length; i++) {
+                if (i > 0) w.write(',');
+                w.write(CSV_HEADER[i]);
+            }
+            w.write('\n');
+        }
+
+        @Override
+        public void row(String name, String type, String color, @Nullable String plate, String date,
+                        double liters, double cost, double mileage,
+                        @Nullable Double distance, @Nullable Double rmPerKm, @Nullable Double litersPer100Km)
+                throws IOException {
+            writeText(name);
+            w.write(',');
+            writeText(type);
+            w.write(',');
+            writeText(color);
+            w.write(',');
+            writeText(plate);
+            w.write(',');
+            writeText(date);
+            w.write(',');
+            w.write(Double.toString(liters));
+            w.write(',');
+            w.write(Double.toString(cost));
+            w.write(',');
+            w.write(Double.toString(mileage));
+            w.write(',');
+            if (distance != null) w.write(Double.toString(distance));
+            w.write(',');
+            if (rmPerKm != null) w.write(formatRatio(rmPerKm));
+            w.write(',');
+            if (litersPer100Km != null) w.write(formatRatio(litersPer100Km));
+            w.write('\n');
+        }
+
+        @Override
+        public void end() {
+            // Nothing to close; the writer is flushed by the caller.
+        }
+
+        // Quotes only when needed, doubling embedded quotes
+        private void writeText(@Nullable String s) throws IOException {
+            if (s == null) return;
+            boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0
+                    || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+            if (!quote) {
+                w.write(s);
+                return;
+            }
+            w.write('"');
+            w.write(s.replace("\"", "\"\""));
+            w.write('"');
+        }
+    }
+
+    private static final class JsonRowWriter implements RowWriter {
+        private final JsonWriter json;
+
+        JsonRowWriter(Writer w) {
+            // Closing is left to the outer writer.
+            json = new JsonWriter(w);
+        }
+
+        @Override
+        public void begin() throws IOException {
+            json.beginArray();
+        }
+
+        @Override
+        public void row(String name, String type, String color, @Nullable String plate, String date,
+                        double liters, double cost, double mileage,
+                        @Nullable Double distance, @Nullable Double rmPerKm, @Nullable Double litersPer100Km)
+                throws IOException {
+            json.beginObject();
+            json.name("vehicle_name").value(name);
+            json.name("vehicle_type").value(type);
+            json.name("vehicle_color").value(color);
+            json.name("plate_number").value(plate);
+            json.name("date").value(date);
+            json.name("volume_liters").value(liters);
+            json.name("cost_rm").value(cost);
+            json.name("mileage_km").value(mileage);
+            json.name("distance_km").value(distance);
+            json.name("rm_per_km").value(rmPerKm);
+            json.name("liters_per_100km").value(litersPer100Km);
+            json.endObject();
+        }
+
+        @Override
+        public void end() throws IOException {
+            json.endArray();
+            json.flush();
+        }
+    }
+
+    // Derived ratios are rounded so the file does not carry floating-point noise
+    private static String formatRatio(double v) {
+        return String.format(Locale.ROOT, "%.4f", v);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.fuelwiselog.data;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.fuelwiselog.core.EpochDays;
+
+// Schema migrations for FuelDatabase, one per version step, so upgrades keep the user's data.
+// Each step must leave the tables exactly as Room generates them for the entities of that version
+// (same columns, defaults and index names), otherwise Room rejects the database on open.
+// Derived data (efficiency columns, totals) is backfilled in SQL inside the migration; epoch days are
+// converted in Java so they match what EpochDays produces for new rows.
+final class FuelMigrations {
+
+    private FuelMigrations() {}
+
+    // v3: indexes for keyset paging of the log by date
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_fuel_records_dateIso_id`"
+                    + " ON `fuel_records` (`dateIso`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_fuel_records_vehicleId_dateIso_id`"
+                    + " ON `fuel_records` (`vehicleId`, `dateIso`, `id`)");
+        }
+    };
+
+    // v4: stored efficiency against the previous fill-up (by mileage, then id) of the same vehicle
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `fuel_records` ADD COLUMN `distanceKm` REAL");
+            db.execSQL("ALTER TABLE `fuel_records` ADD COLUMN `rmPerKm` REAL");
+            db.execSQL("ALTER TABLE `fuel_records` ADD COLUMN `litersPer100Km` REAL");
+
+            // Same neighbour rule as FuelRecordDao.findPrevious(), served by the (vehicleId, mileageKm) index.
+            db.execSQL("UPDATE fuel_records SET distanceKm = mileageKm - ("
+                    + "SELECT p.mileageKm FROM fuel_records p WHERE p.vehicleId = fuel_records.vehicleId"
+                    + " AND (p.mileageKm < fuel_records.mileageKm"
+                    + " OR (p.mileageKm = fuel_records.mileageKm AND p.id < fuel_records.id))"
+                    + " ORDER BY p.mileageKm DESC, p.id DESC LIMIT 1)");
+            // Same rule as FuelRecord.applyEfficiencyFrom(): only a positive distance counts.
+            db.execSQL("UPDATE fuel_records SET distanceKm = NULL WHERE distanceKm <= 0");
+            db.execSQL("UPDATE fuel_records SET rmPerKm = costRm / distanceKm,"
+                    + " litersPer100Km = volumeLiters / distanceKm * 100.0 WHERE distanceKm IS NOT NULL");
+        }
+    };
+
+    // v5: per-vehicle running totals, seeded from the existing records
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `vehicle_stats` (`vehicleId` INTEGER NOT NULL,"
+                    + " `recordCount` INTEGER NOT NULL, `totalCostRm` REAL NOT NULL, `totalLiters` REAL NOT NULL,"
+                    + " `minMileageKm` REAL, `maxMileageKm` REAL, `efficiencyCount` INTEGER NOT NULL,"
+                    + " `sumDistanceKm` REAL NOT NULL, `sumRmPerKm` REAL NOT NULL, `sumLitersPer100Km` REAL NOT NULL,"
+                    + " PRIMARY KEY(`vehicleId`), FOREIGN KEY(`vehicleId`) REFERENCES `vehicles`(`id`)"
+                    + " ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO vehicle_stats (vehicleId, recordCount, totalCostRm, totalLiters,"
+                    + " minMileageKm, maxMileageKm, efficiencyCount, sumDistanceKm, sumRmPerKm, sumLitersPer100Km)"
+                    + " SELECT vehicleId, COUNT(*), SUM(costRm), SUM(volumeLiters), MIN(mileageKm), MAX(mileageKm),"
+                    + " COUNT(distanceKm), IFNULL(SUM(distanceKm), 0), IFNULL(SUM(rmPerKm), 0),"
+                    + " IFNULL(SUM(litersPer100Km), 0)"
+                    + " FROM fuel_records GROUP BY vehicleId");
+        }
+    };
+
+    // v6: integer date column; paging and date ranges move from dateIso to dateEpochDay
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `fuel_records` ADD COLUMN `dateEpochDay` INTEGER NOT NULL DEFAULT 0");
+            // Converted with EpochDays.fromIso rather than julianday(), which also accepts days that do not
+            // exist (2024-02-30); those rows keep the default EpochDays.UNKNOWN, as a new write would store.
+            try (Cursor c = db.query("SELECT id, dateIso FROM fuel_records")) {
+                while (c.moveToNext()) {
+                    long epochDay = EpochDays.fromIso(c.getString(1));
+                    if (epochDay == EpochDays.UNKNOWN) continue;
+                    db.execSQL("UPDATE fuel_records SET dateEpochDay = ? WHERE id = ?",
+                            new Object[]{epochDay, c.getLong(0)});
+                }
+            }
+
+            db.execSQL("DROP INDEX IF EXISTS `index_fuel_records_dateIso_id`");
+            db.execSQL("DROP INDEX IF EXISTS `index_fuel_records_vehicleId_dateIso_id`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_fuel_records_dateEpochDay_id`"
+                    + " ON `fuel_records` (`dateEpochDay`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_fuel_records_vehicleId_dateEpochDay_id`"
+                    + " ON `fuel_records` (`vehicleId`, `dateEpochDay`, `id`)");
+        }
+    };
+
+    // v7: per-vehicle monthly totals for trend views, seeded here from every existing record (same month
+    // key as EpochDays.yearMonth(), taken from dateEpochDay); record writes keep it current from then on
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `fuel_monthly_rollup` (`vehicleId` INTEGER NOT NULL,"
+                    + " `yearMonth` INTEGER NOT NULL, `recordCount` INTEGER NOT NULL, `totalCostRm` REAL NOT NULL,"
+                    + " `totalLiters` REAL NOT NULL, `efficiencyCount` INTEGER NOT NULL,"
+                    + " `sumDistanceKm` REAL NOT NULL, PRIMARY KEY(`vehicleId`, `yearMonth`),"
+                    + " FOREIGN KEY(`vehicleId`) REFERENCES `vehicles`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO fuel_monthly_rollup (vehicleId, yearMonth, recordCount, totalCostRm,"
+                    + " totalLiters, efficiencyCount, sumDistanceKm)"
+                    + " SELECT vehicleId, ym, COUNT(*), SUM(costRm), SUM(volumeLiters), COUNT(distanceKm),"
+                    + " IFNULL(SUM(distanceKm), 0)"
+                    + " FROM (SELECT vehicleId, costRm, volumeLiters, distanceKm,"
+                    + " CAST(strftime('%Y%m', dateEpochDay * 86400, 'unixepoch') AS INTEGER) AS ym"
+                    + " FROM fuel_records)"
+                    + " GROUP BY vehicleId, ym");
+        }
+    };
+
+    // Every step in order; add the next one here when the version is bumped
+    static final Migration[] ALL = {
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7
+    };
+}
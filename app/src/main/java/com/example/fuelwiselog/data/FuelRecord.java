@@ -1,10 +1,15 @@
 package com.example.fuelwiselog.data;
 
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.ForeignKey;
 import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
+import com.example.fuelwiselog.core.EpochDays;
+import com.example.fuelwiselog.core.Interval;
+
 // Defines the "fuel_records" table. Each row represents one fill-up.
 @Entity(
         tableName = "fuel_records",
@@ -16,9 +21,12 @@ import androidx.room.PrimaryKey;
                 onDelete = ForeignKey.CASCADE
         ),
         // Indexes speed up queries, specifically when sorting by mileage to calculate efficiency.
+        // The (dateEpochDay, id) pairs back the newest-first keyset paging and date-range scans.
         indices = {
                 @Index("vehicleId"),
-                @Index(value = {"vehicleId", "mileageKm"})
+                @Index(value = {"vehicleId", "mileageKm"}),
+                @Index(value = {"dateEpochDay", "id"}),
+                @Index(value = {"vehicleId", "dateEpochDay", "id"})
         }
 )
 public class FuelRecord {
@@ -33,14 +41,29 @@ public class FuelRecord {
     // Date stored as "YYYY-MM-DD" string so it sorts correctly.
     private String dateIso;
 
+    // Same date as days since 1970-01-01, kept in step with dateIso; ordering and ranges use this column.
+    // The default only matters for rows migrated from older versions (see FuelMigrations).
+    @ColumnInfo(defaultValue = "0")
+    private long dateEpochDay;
+
     // The raw data input by the user at the gas station.
     private double volumeLiters;
     private double costRm;
     private double mileageKm;
 
+    // Efficiency since the previous fill-up of the same vehicle (by mileage), stored at write time.
+    // Null for the vehicle's first fill-up or when the mileage did not increase.
+    @Nullable
+    private Double distanceKm;
+    @Nullable
+    private Double rmPerKm;
+    @Nullable
+    private Double litersPer100Km;
+
     public FuelRecord(long vehicleId, String dateIso, double volumeLiters, double costRm, double mileageKm) {
         this.vehicleId = vehicleId;
         this.dateIso = dateIso;
+        this.dateEpochDay = EpochDays.fromIso(dateIso);
         this.volumeLiters = volumeLiters;
         this.costRm = costRm;
         this.mileageKm = mileageKm;
@@ -53,7 +76,13 @@ public class FuelRecord {
     public void setVehicleId(long vehicleId) { this.vehicleId = vehicleId; }
 
     public String getDateIso() { return dateIso; }
-    public void setDateIso(String dateIso) { this.dateIso = dateIso; }
+    public void setDateIso(String dateIso) {
+        this.dateIso = dateIso;
+        this.dateEpochDay = EpochDays.fromIso(dateIso);
+    }
+
+    public long getDateEpochDay() { return dateEpochDay; }
+    public void setDateEpochDay(long dateEpochDay) { this.dateEpochDay = dateEpochDay; }
 
     public double getVolumeLiters() { return volumeLiters; }
     public void setVolumeLiters(double volumeLiters) { this.volumeLiters = volumeLiters; }
@@ -63,4 +92,25 @@ public class FuelRecord {
 
     public double getMileageKm() { return mileageKm; }
     public void setMileageKm(double mileageKm) { this.mileageKm = mileageKm; }
-}
\ No newline at end of file
+
+    @Nullable public Double getDistanceKm() { return distanceKm; }
+    public void setDistanceKm(@Nullable Double distanceKm) { this.distanceKm = distanceKm; }
+
+    @Nullable public Double getRmPerKm() { return rmPerKm; }
+    public void setRmPerKm(@Nullable Double rmPerKm) { this.rmPerKm = rmPerKm; }
+
+    @Nullable public Double getLitersPer100Km() { return litersPer100Km; }
+    public void setLitersPer100Km(@Nullable Double litersPer100Km) { this.litersPer100Km = litersPer100Km; }
+
+    // Recomputes the efficiency columns against the previous fill-up (null = this is the first one).
+    // Returns the interval that was stored, or null if there is none.
+    @Nullable
+    public Interval applyEfficiencyFrom(@Nullable FuelRecord previous) {
+        Interval interval = previous == null ? null
+                : Interval.between(previous.mileageKm, mileageKm, costRm, volumeLiters);
+        distanceKm = interval == null ? null : interval.distanceKm;
+        rmPerKm = interval == null ? null : interval.rmPerKm;
+        litersPer100Km = interval == null ? null : interval.litersPer100Km;
+        return interval;
+    }
+}
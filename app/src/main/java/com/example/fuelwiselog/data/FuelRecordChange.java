@@ -0,0 +1,33 @@
+package com.example.fuelwiselog.data;
+
+import androidx.annotation.Nullable;
+
+// Describes what one committed write did to fuel_records, so screens can patch their state
+// instead of re-reading everything. Published by FuelRepository through FuelRecordChanges.
+public final class FuelRecordChange {
+
+    public enum Type {
+        INSERTED, // record = the new row (with its efficiency)
+        DELETED,  // record = the removed row
+        RESET     // many rows changed at once (e.g. vehicle cascade delete); reload
+    }
+
+    public final Type type;
+
+    @Nullable
+    public final FuelRecord record;
+
+    // Next fill-up of the same vehicle (by mileage) whose efficiency was recomputed; null if none
+    @Nullable
+    public final FuelRecord successor;
+
+    FuelRecordChange(Type type, @Nullable FuelRecord record, @Nullable FuelRecord successor) {
+        this.type = type;
+        this.record = record;
+        this.successor = successor;
+    }
+
+    static FuelRecordChange reset() {
+        return new FuelRecordChange(Type.RESET, null, null);
+    }
+}
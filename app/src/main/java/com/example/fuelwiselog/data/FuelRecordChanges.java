@@ -0,0 +1,28 @@
+package com.example.fuelwiselog.data;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Process-wide channel for FuelRecordChange events. Listeners are called on the DB executor thread
+// right after the write commits, so they must hand work off to their own thread.
+public final class FuelRecordChanges {
+
+    private FuelRecordChanges() {}
+
+    public interface Listener {
+        void onChange(FuelRecordChange change);
+    }
+
+    private static final CopyOnWriteArrayList<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    public static void addListener(Listener listener) {
+        LISTENERS.addIfAbsent(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    static void publish(FuelRecordChange change) {
+        for (Listener l : LISTENERS) l.onChange(change);
+    }
+}
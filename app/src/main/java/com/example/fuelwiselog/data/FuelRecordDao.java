@@ -1,21 +1,51 @@
 package com.example.fuelwiselog.data;
 
+import android.database.Cursor;
+
 import androidx.lifecycle.LiveData;
 import androidx.room.*;
 
+import com.example.fuelwiselog.core.EpochDays;
+
 import java.util.List;
 
 // Interface defining database operations (SQL queries) for fuel records
 @Dao
 public interface FuelRecordDao {
 
-    // Adds a new fuel fill-up to the database
-    @Insert
-    long insert(FuelRecord record);
+    // Adds a new fuel fill-up and keeps the stored efficiency of it and its successor correct.
+    // Works for back-filled records too: only the new row and the next row (by mileage) are touched.
+    // vehicle_stats is updated in the same transaction.
+    default long insert(FuelRecord record) {
+        return insertRecord(record).record.getId();
+    }
+
+    // Same as insert(), but reports the rows it touched so observers can patch instead of reload
+    @Transaction
+    default FuelRecordChange insertRecord(FuelRecord record) {
+        long id = insertRow(record);
+        record.setId(id);
+        ensureStats(record.getVehicleId());
+
+        record.applyEfficiencyFrom(findPrevious(record.getVehicleId(), record.getMileageKm(), id));
+        saveEfficiency(record);
+
+        FuelRecord next = findNext(record.getVehicleId(), record.getMileageKm(), id);
+        if (next != null) {
+            addEfficiencyToStats(next, -1);
+            next.applyEfficiencyFrom(record);
+            saveEfficiency(next);
+            addEfficiencyToStats(next, 1);
+        }
+
+        addRecordToStats(record, 1);
+        return new FuelRecordChange(FuelRecordChange.Type.INSERTED, record, next);
+    }
 
     // Removes a specific fuel record object
-    @Delete
-    void delete(FuelRecord record);
+    default void delete(FuelRecord record) {
+        deleteById(record.getId());
+    }
 
     // Fetches history for a specific vehicle, sorted by mileage to calculate efficiency (Distance = Current - Previous)
     @Query("SELECT * FROM fuel_records WHERE vehicleId = :vehicleId ORDER BY mileageKm ASC")
@@ -25,12 +55,241 @@ public interface FuelRecordDao {
     @Query("SELECT mileageKm FROM fuel_records WHERE vehicleId = :vehicleId ORDER BY mileageKm DESC LIMIT 1")
     LiveData<Double> getLastMileage(long vehicleId);
 
-    // Fetches all records in the entire database, grouped by vehicle
-    @Query("SELECT * FROM fuel_records ORDER BY vehicleId ASC, mileageKm ASC")
-    LiveData<List<FuelRecord>> getAllOrderByVehicleAndMileageAsc();
+    // Deletes a specific record by its ID; used when user swipes to delete in the list.
+    // The successor (by mileage) is re-linked to the predecessor in the same transaction.
+    default void deleteById(long id) {
+        deleteRecord(id);
+    }
+
+    // Same as deleteById(), but reports the rows it touched; null if the record did not exist
+    @Transaction
+    default FuelRecordChange deleteRecord(long id) {
+        FuelRecord gone = getById(id);
+        if (gone == null) return null;
+
+        FuelRecord prev = findPrevious(gone.getVehicleId(), gone.getMileageKm(), id);
+        FuelRecord next = findNext(gone.getVehicleId(), gone.getMileageKm(), id);
+        deleteRow(id);
+        addRecordToStats(gone, -1);
+
+        if (next != null) {
+            addEfficiencyToStats(next, -1);
+            next.applyEfficiencyFrom(prev);
+            saveEfficiency(next);
+            addEfficiencyToStats(next, 1);
+        }
+        return new FuelRecordChange(FuelRecordChange.Type.DELETED, gone, next);
+    }
+
+    // Writes the stored efficiency columns of one record
+    default void saveEfficiency(FuelRecord r) {
+        updateEfficiency(r.getId(), r.getDistanceKm(), r.getRmPerKm(), r.getLitersPer100Km());
+    }
+
+    // ---------------- Building blocks for the write path ----------------
+    // Neighbours are ordered by (mileageKm, id) and found on the (vehicleId, mileageKm) index.
+
+    @Insert
+    long insertRow(FuelRecord record);
 
-    // Deletes a specific record by its ID; used when user swipes to delete in the list
     @Query("DELETE FROM fuel_records WHERE id = :id")
-    void deleteById(long id);
+    void deleteRow(long id);
+
+    @Query("SELECT * FROM fuel_records WHERE id = :id")
+    FuelRecord getById(long id);
+
+    // Fill-up just before (mileageKm, id) for the same vehicle
+    @Query("SELECT * FROM fuel_records WHERE vehicleId = :vehicleId"
+            + " AND (mileageKm < :mileageKm OR (mileageKm = :mileageKm AND id < :id))"
+            + " ORDER BY mileageKm DESC, id DESC LIMIT 1")
+    FuelRecord findPrevious(long vehicleId, double mileageKm, long id);
+
+    // Fill-up just after (mileageKm, id) for the same vehicle
+    @Query("SELECT * FROM fuel_records WHERE vehicleId = :vehicleId"
+            + " AND (mileageKm > :mileageKm OR (mileageKm = :mileageKm AND id > :id))"
+            + " ORDER BY mileageKm ASC, id ASC LIMIT 1")
+    FuelRecord findNext(long vehicleId, double mileageKm, long id);
+
+    @Query("UPDATE fuel_records SET distanceKm = :distanceKm, rmPerKm = :rmPerKm,"
+            + " litersPer100Km = :litersPer100Km WHERE id = :id")
+    void updateEfficiency(long id, Double distanceKm, Double rmPerKm, Double litersPer100Km);
+
+    // ---------------- Bulk import ----------------
+    // Rows must arrive with efficiency already set and above the vehicle's last mileage (see FuelCsvImporter)
+
+    @Insert
+    void insertRows(List<FuelRecord> records);
+
+    // Highest-mileage fill-up of a vehicle; the predecessor of anything appended after it
+    @Query("SELECT * FROM fuel_records WHERE vehicleId = :vehicleId ORDER BY mileageKm DESC, id DESC LIMIT 1")
+    FuelRecord findLast(long vehicleId);
+
+    // ---------------- vehicle_stats + fuel_monthly_rollup maintenance ----------------
+    // Only ever called from the transactions above, so the totals always match the records.
+
+    // Adds (sign = 1) or removes (sign = -1) one record, including its efficiency, from the vehicle's totals
+    // and from its month
+    default void addRecordToStats(FuelRecord r, int sign) {
+        boolean eff = r.getDistanceKm() != null;
+        applyStatsDelta(r.getVehicleId(), sign, sign * r.getCostRm(), sign * r.getVolumeLiters(),
+                eff ? sign : 0,
+                eff ? sign * r.getDistanceKm() : 0,
+                eff ? sign * r.getRmPerKm() : 0,
+                eff ? sign * r.getLitersPer100Km() : 0);
+
+        int yearMonth = EpochDays.yearMonth(r.getDateEpochDay());
+        ensureMonth(r.getVehicleId(), yearMonth);
+        applyMonthDelta(r.getVehicleId(), yearMonth, sign, sign * r.getCostRm(), sign * r.getVolumeLiters(),
+                eff ? sign : 0, eff ? sign * r.getDistanceKm() : 0);
+        if (sign < 0) deleteEmptyMonth(r.getVehicleId(), yearMonth);
+    }
+
+    // Adds or removes only the efficiency part of a record (used when its predecessor changes)
+    default void addEfficiencyToStats(FuelRecord r, int sign) {
+        if (r.getDistanceKm() == null) return;
+        applyStatsDelta(r.getVehicleId(), 0, 0, 0, sign,
+                sign * r.getDistanceKm(), sign * r.getRmPerKm(), sign * r.getLitersPer100Km());
+        // The record itself is still counted, so its month row exists.
+        applyMonthDelta(r.getVehicleId(), EpochDays.yearMonth(r.getDateEpochDay()), 0, 0, 0,
+                sign, sign * r.getDistanceKm());
+    }
+
+    @Query("INSERT OR IGNORE INTO vehicle_stats (vehicleId, recordCount, totalCostRm, totalLiters,"
+            + " efficiencyCount, sumDistanceKm, sumRmPerKm, sumLitersPer100Km)"
+            + " VALUES (:vehicleId, 0, 0, 0, 0, 0, 0, 0)")
+    void ensureStats(long vehicleId);
+
+    // Applies the deltas and refreshes min/max mileage from the (vehicleId, mileageKm) index
+    @Query("UPDATE vehicle_stats SET recordCount = recordCount + :recordDelta,"
+            + " totalCostRm = totalCostRm + :costDelta,"
+            + " totalLiters = totalLiters + :litersDelta,"
+            + " efficiencyCount = efficiencyCount + :efficiencyDelta,"
+            + " sumDistanceKm = sumDistanceKm + :distanceDelta,"
+            + " sumRmPerKm = sumRmPerKm + :rmPerKmDelta,"
+            + " sumLitersPer100Km = sumLitersPer100Km + :litersPer100KmDelta,"
+            + " minMileageKm = (SELECT MIN(mileageKm) FROM fuel_records WHERE vehicleId = :vehicleId),"
+            + " maxMileageKm = (SELECT MAX(mileageKm) FROM fuel_records WHERE vehicleId = :vehicleId)"
+            + " WHERE vehicleId = :vehicleId")
+    void applyStatsDelta(long vehicleId, int recordDelta, double costDelta, double litersDelta,
+                         int efficiencyDelta, double distanceDelta, double rmPerKmDelta,
+                         double litersPer100KmDelta);
+
+    @Query("INSERT OR IGNORE INTO fuel_monthly_rollup (vehicleId, yearMonth, recordCount, totalCostRm,"
+            + " totalLiters, efficiencyCount, sumDistanceKm) VALUES (:vehicleId, :yearMonth, 0, 0, 0, 0, 0)")
+    void ensureMonth(long vehicleId, int yearMonth);
+
+    @Query("UPDATE fuel_monthly_rollup SET recordCount = recordCount + :recordDelta,"
+            + " totalCostRm = totalCostRm + :costDelta,"
+            + " totalLiters = totalLiters + :litersDelta,"
+            + " efficiencyCount = efficiencyCount + :efficiencyDelta,"
+            + " sumDistanceKm = sumDistanceKm + :distanceDelta"
+            + " WHERE vehicleId = :vehicleId AND yearMonth = :yearMonth")
+    void applyMonthDelta(long vehicleId, int yearMonth, int recordDelta, double costDelta, double litersDelta,
+                         int efficiencyDelta, double distanceDelta);
+
+    // A month whose last fill-up was deleted disappears rather than showing as zero
+    @Query("DELETE FROM fuel_monthly_rollup WHERE vehicleId = :vehicleId AND yearMonth = :yearMonth"
+            + " AND recordCount <= 0")
+    void deleteEmptyMonth(long vehicleId, int yearMonth);
+
+    // ---------------- Rolling efficiency averages (log card) ----------------
+    // Each record already stores its interval against the previous fill-up (what LAG() over
+    // (vehicleId, mileageKm) would give), so the windows below are plain aggregates on the indexes.
+
+    // All-time average, straight from the running sums in vehicle_stats
+    @Query("SELECT efficiencyCount AS intervals,"
+            + " CASE WHEN efficiencyCount > 0 THEN sumRmPerKm / efficiencyCount END AS avgRmPerKm,"
+            + " CASE WHEN efficiencyCount > 0 THEN sumLitersPer100Km / efficiencyCount END AS avgLitersPer100Km"
+            + " FROM vehicle_stats WHERE vehicleId = :vehicleId")
+    LiveData<EfficiencyAverage> getAverageAllTime(long vehicleId);
+
+    // Average over the vehicle's last N fill-ups (by mileage), read backwards on the (vehicleId, mileageKm) index
+    @Query("SELECT COUNT(rmPerKm) AS intervals, AVG(rmPerKm) AS avgRmPerKm,"
+            + " AVG(litersPer100Km) AS avgLitersPer100Km"
+            + " FROM (SELECT rmPerKm, litersPer100Km FROM fuel_records WHERE vehicleId = :vehicleId"
+            + " ORDER BY mileageKm DESC, id DESC LIMIT :lastN)")
+    LiveData<EfficiencyAverage> getAverageLastN(long vehicleId, int lastN);
+
+    // Average over fill-ups dated within the last N days, a range scan on (vehicleId, dateEpochDay).
+    // Today is taken from SQLite on every refresh; julianday('1970-01-01') = 2440587.5.
+    @Query("SELECT COUNT(rmPerKm) AS intervals, AVG(rmPerKm) AS avgRmPerKm,"
+            + " AVG(litersPer100Km) AS avgLitersPer100Km"
+            + " FROM fuel_records WHERE vehicleId = :vehicleId"
+            + " AND dateEpochDay >= CAST(julianday('now', 'localtime') - 2440587.5 AS INTEGER) - :days")
+    LiveData<EfficiencyAverage> getAverageLastDays(long vehicleId, int days);
+
+    // ---------------- Date ranges (reporting) ----------------
+    // Inclusive day ranges scanned on (vehicleId, dateEpochDay, id), or (dateEpochDay, id) fleet-wide,
+    // so only rows inside the window are read. Each row's stored efficiency is measured from its previous
+    // fill-up, so the first row of a window already uses the fill-up just before the window.
+
+    @Query("SELECT * FROM fuel_records WHERE vehicleId = :vehicleId"
+            + " AND dateEpochDay BETWEEN :fromEpochDay AND :toEpochDay"
+            + " ORDER BY dateEpochDay ASC, id ASC")
+    LiveData<List<FuelRecord>> getByVehicleInRange(long vehicleId, long fromEpochDay, long toEpochDay);
+
+    @Query("SELECT * FROM fuel_records WHERE dateEpochDay BETWEEN :fromEpochDay AND :toEpochDay"
+            + " ORDER BY dateEpochDay ASC, id ASC")
+    LiveData<List<FuelRecord>> getAllInRange(long fromEpochDay, long toEpochDay);
+
+    @Query("SELECT COUNT(*) AS records, IFNULL(SUM(costRm), 0) AS totalCostRm,"
+            + " IFNULL(SUM(volumeLiters), 0) AS totalLiters, COUNT(distanceKm) AS intervals,"
+            + " IFNULL(SUM(distanceKm), 0) AS distanceKm, AVG(rmPerKm) AS avgRmPerKm,"
+            + " AVG(litersPer100Km) AS avgLitersPer100Km"
+            + " FROM fuel_records WHERE vehicleId = :vehicleId"
+            + " AND dateEpochDay BETWEEN :fromEpochDay AND :toEpochDay")
+    LiveData<RangeTotals> getTotalsByVehicleInRange(long vehicleId, long fromEpochDay, long toEpochDay);
+
+    @Query("SELECT COUNT(*) AS records, IFNULL(SUM(costRm), 0) AS totalCostRm,"
+            + " IFNULL(SUM(volumeLiters), 0) AS totalLiters, COUNT(distanceKm) AS intervals,"
+            + " IFNULL(SUM(distanceKm), 0) AS distanceKm, AVG(rmPerKm) AS avgRmPerKm,"
+            + " AVG(litersPer100Km) AS avgLitersPer100Km"
+            + " FROM fuel_records WHERE dateEpochDay BETWEEN :fromEpochDay AND :toEpochDay")
+    LiveData<RangeTotals> getTotalsInRange(long fromEpochDay, long toEpochDay);
+
+    // ---------------- Paged log (newest first) ----------------
+    // Keyset paging on (dateEpochDay, id): each page starts strictly after the last row of the previous one,
+    // so a page costs the same however deep the user has scrolled.
+    // Rows already carry their efficiency columns, so page boundaries need no extra lookups.
+    // Pages are read as cursors over COLUMNS straight into FuelColumns (see FuelColumnsReader),
+    // so no FuelRecord objects are created for them.
+
+    // The fields FuelColumns holds, in the order FuelColumnsReader expects
+    String COLUMNS = "id, vehicleId, dateEpochDay, mileageKm, costRm, volumeLiters,"
+            + " distanceKm, rmPerKm, litersPer100Km";
+
+    // First page across all vehicles
+    @Query("SELECT " + COLUMNS + " FROM fuel_records"
+            + " ORDER BY dateEpochDay DESC, id DESC LIMIT :limit")
+    Cursor getLogPage(int limit);
+
+    // Next page across all vehicles, after the (afterEpochDay, afterId) cursor
+    @Query("SELECT " + COLUMNS + " FROM fuel_records"
+            + " WHERE dateEpochDay < :afterEpochDay OR (dateEpochDay = :afterEpochDay AND id < :afterId)"
+            + " ORDER BY dateEpochDay DESC, id DESC LIMIT :limit")
+    Cursor getLogPageAfter(long afterEpochDay, long afterId, int limit);
+
+    // First page for one vehicle
+    @Query("SELECT " + COLUMNS + " FROM fuel_records WHERE vehicleId = :vehicleId"
+            + " ORDER BY dateEpochDay DESC, id DESC LIMIT :limit")
+    Cursor getLogPageByVehicle(long vehicleId, int limit);
+
+    // Next page for one vehicle, after the (afterEpochDay, afterId) cursor
+    @Query("SELECT " + COLUMNS + " FROM fuel_records WHERE vehicleId = :vehicleId"
+            + " AND (dateEpochDay < :afterEpochDay OR (dateEpochDay = :afterEpochDay AND id < :afterId))"
+            + " ORDER BY dateEpochDay DESC, id DESC LIMIT :limit")
+    Cursor getLogPageByVehicleAfter(long vehicleId, long afterEpochDay, long afterId, int limit);
+
+    // One vehicle's efficiency pairs, only for fill-ups that have an interval (dashboard distributions)
+    @Query("SELECT rmPerKm, litersPer100Km FROM fuel_records"
+            + " WHERE vehicleId = :vehicleId AND distanceKm IS NOT NULL")
+    Cursor getIntervalsByVehicle(long vehicleId);
+
+    // Record counts for the log header, read from the running counts in vehicle_stats
+    @Query("SELECT IFNULL(SUM(recordCount), 0) FROM vehicle_stats")
+    LiveData<Integer> countAll();
+
+    @Query("SELECT IFNULL((SELECT recordCount FROM vehicle_stats WHERE vehicleId = :vehicleId), 0)")
+    LiveData<Integer> countByVehicle(long vehicleId);
 
 }
\ No newline at end of file
@@ -1,85 +1,291 @@
 package com.example.fuelwiselog.data;
 
 import android.app.Application;
+import android.database.Cursor;
+import android.net.Uri;
 
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
 
+import com.example.fuelwiselog.core.EfficiencyStats;
+import com.example.fuelwiselog.core.FuelColumns;
+
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
  * Repository for Vehicles + Fuel Records.
- * All writes run on {@link FuelDatabase#DB_EXECUTOR}.
+ * All writes run on {@link FuelDatabase#DB_EXECUTOR}, coalesced into shared transactions by
+ * {@link FuelWriteQueue}; each returns a future that completes once its transaction has committed.
+ * Record writes are announced through {@link FuelRecordChanges} once committed.
+ * There is one instance per process; its LiveData streams are shared by every screen.
  */
 // Mediator class that handles data operations, separating the Database from the UI
 public class FuelRepository {
 
+    // File import/export streams are read and written here, off the DB writer
+    private static final ExecutorService FILE_EXECUTOR = Executors.newSingleThreadExecutor();
+    // Efficiency distribution reads run here, off the writer and file jobs
+    private static final ExecutorService ANALYTICS_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final Application app;
+    private final FuelDatabase db;
     private final VehicleDao vehicleDao;
     private final FuelRecordDao fuelRecordDao;
+    private final VehicleStatsDao vehicleStatsDao;
+    private final MonthlyRollupDao monthlyRollupDao;
+    private final FuelWriteQueue writeQueue;
+    private final VehicleCache vehicleCache;
+    private final SharedStreams streams = new SharedStreams();
+
+    // One repository per process: every screen's ViewModel shares its streams (see SharedStreams)
+    private static volatile FuelRepository INSTANCE;
+
+    public static FuelRepository getInstance(Application app) {
+        if (INSTANCE == null) {
+            synchronized (FuelRepository.class) {
+                if (INSTANCE == null) INSTANCE = new FuelRepository(app);
+            }
+        }
+        return INSTANCE;
+    }
 
-    public FuelRepository(Application app) {
+    private FuelRepository(Application app) {
         // Repository owns DAO references and write thread.
-        FuelDatabase db = FuelDatabase.getInstance(app);
+        this.app = app;
+        db = FuelDatabase.getInstance(app);
         vehicleDao = db.vehicleDao();
         fuelRecordDao = db.fuelRecordDao();
+        vehicleStatsDao = db.vehicleStatsDao();
+        monthlyRollupDao = db.monthlyRollupDao();
+        writeQueue = db.writeQueue();
+        vehicleCache = db.vehicleCache();
     }
 
-    // Returns a live list of vehicles that updates the UI automatically when changes occur
+    // Returns a live list of vehicles that updates the UI automatically when changes occur.
+    // Served from the shared VehicleCache, so the table is only re-read after it changes.
     public LiveData<List<Vehicle>> getVehicles() {
-        return vehicleDao.getAll();
+        return streams.get("vehicles", () ->
+                Transformations.map(vehicleCache.getSnapshots(), VehicleCache.Snapshot::list));
+    }
+
+    // Id -> Vehicle lookups for the screens, with the list they came from
+    public LiveData<VehicleCache.Snapshot> getVehicleSnapshots() {
+        return vehicleCache.getSnapshots();
+    }
+
+    // O(1) lookup in the latest snapshot; null if unknown or not loaded yet
+    @Nullable
+    public Vehicle findVehicle(long vehicleId) {
+        return vehicleCache.get(vehicleId);
     }
 
-    // Adds a vehicle on a background thread to keep the app responsive
-    public void insertVehicle(Vehicle v) {
+    // Adds a vehicle on a background thread to keep the app responsive; completes with the new ID
+    public CompletableFuture<Long> insertVehicle(Vehicle v) {
         // Writes are executed on the DB executor.
-        FuelDatabase.DB_EXECUTOR.execute(() -> vehicleDao.insert(v));
+        return writeQueue.submit(() -> vehicleDao.insert(v));
     }
 
     // Updates vehicle details on a background thread
-    public void updateVehicle(Vehicle v) {
+    public CompletableFuture<Void> updateVehicle(Vehicle v) {
         // Writes are executed on the DB executor.
-        FuelDatabase.DB_EXECUTOR.execute(() -> vehicleDao.update(v));
+        return writeQueue.submit(() -> {
+            vehicleDao.update(v);
+            return null;
+        });
     }
 
     // Deletes a vehicle on a background thread
-    public void deleteVehicle(Vehicle v) {
+    public CompletableFuture<Void> deleteVehicle(Vehicle v) {
         // Writes are executed on the DB executor.
-        FuelDatabase.DB_EXECUTOR.execute(() -> vehicleDao.delete(v));
+        // The cascade removes the vehicle's records, so listeners reload.
+        return writeQueue.submit(() -> {
+            vehicleDao.delete(v);
+            return null;
+        }, ignored -> FuelRecordChanges.publish(FuelRecordChange.reset()));
     }
 
     // ---------------- Fuel Records ----------------
     // Fetches logs for a specific car, sorted by mileage (needed to calculate distance between fill-ups)
     public LiveData<List<FuelRecord>> getRecordsByVehicleMileageAsc(long vehicleId) {
         // LiveData stream for a vehicle's records ordered by mileage.
-        return fuelRecordDao.getByVehicleMileageAsc(vehicleId);
+        return streams.get("recordsByMileage:" + vehicleId, () -> fuelRecordDao.getByVehicleMileageAsc(vehicleId));
     }
 
     // Gets the highest mileage recorded to validate that new entries aren't lower than history
     public LiveData<Double> getLastMileage(long vehicleId) {
         // Latest mileage for validation in AddRecord.
-        return fuelRecordDao.getLastMileage(vehicleId);
+        return streams.get("lastMileage:" + vehicleId, () -> fuelRecordDao.getLastMileage(vehicleId));
     }
 
-    // Fetches all records for all vehicles
-    public LiveData<List<FuelRecord>> getAllRecordsOrderByVehicleMileageAsc() {
-        // All records ordered by vehicle + mileage for efficiency math.
-        return fuelRecordDao.getAllOrderByVehicleAndMileageAsc();
+    // Running totals for the dashboard (one row, maintained on every record write)
+    public LiveData<VehicleStats> getVehicleStats(long vehicleId) {
+        return streams.get("stats:" + vehicleId, () -> vehicleStatsDao.getByVehicle(vehicleId));
+    }
+
+    // Rolling efficiency averages for the log card (see FuelRecordDao)
+    public LiveData<EfficiencyAverage> getAverageAllTime(long vehicleId) {
+        return streams.get("avgAll:" + vehicleId, () -> fuelRecordDao.getAverageAllTime(vehicleId));
+    }
+
+    public LiveData<EfficiencyAverage> getAverageLastN(long vehicleId, int lastN) {
+        return streams.get("avgLastN:" + vehicleId + ":" + lastN,
+                () -> fuelRecordDao.getAverageLastN(vehicleId, lastN));
+    }
+
+    public LiveData<EfficiencyAverage> getAverageLastDays(long vehicleId, int days) {
+        return streams.get("avgLastDays:" + vehicleId + ":" + days,
+                () -> fuelRecordDao.getAverageLastDays(vehicleId, days));
+    }
+
+    // Loads the first page of the log, newest first, as primitive columns.
+    // vehicleId <= 0 means all vehicles. Runs on the calling thread, so never call it from the UI thread.
+    public FuelColumns loadLogPage(long vehicleId, int limit) {
+        return FuelColumnsReader.read(vehicleId > 0
+                ? fuelRecordDao.getLogPageByVehicle(vehicleId, limit)
+                : fuelRecordDao.getLogPage(limit));
+    }
+
+    // Loads the page after the (afterEpochDay, afterId) row, i.e. the last row already shown
+    public FuelColumns loadLogPageAfter(long vehicleId, long afterEpochDay, long afterId, int limit) {
+        return FuelColumnsReader.read(vehicleId > 0
+                ? fuelRecordDao.getLogPageByVehicleAfter(vehicleId, afterEpochDay, afterId, limit)
+                : fuelRecordDao.getLogPageAfter(afterEpochDay, afterId, limit));
+    }
+
+    // Records dated inside the range, oldest first (all vehicles when vehicleId <= 0)
+    public LiveData<List<FuelRecord>> getRecordsInRange(long vehicleId, DateRange range) {
+        return streams.get("range:" + vehicleId + ":" + range.fromEpochDay + ":" + range.toEpochDay, () ->
+                vehicleId > 0
+                        ? fuelRecordDao.getByVehicleInRange(vehicleId, range.fromEpochDay, range.toEpochDay)
+                        : fuelRecordDao.getAllInRange(range.fromEpochDay, range.toEpochDay));
+    }
+
+    // Totals and average efficiency over the same rows (all vehicles when vehicleId <= 0)
+    public LiveData<RangeTotals> getTotalsInRange(long vehicleId, DateRange range) {
+        return streams.get("rangeTotals:" + vehicleId + ":" + range.fromEpochDay + ":" + range.toEpochDay, () ->
+                vehicleId > 0
+                        ? fuelRecordDao.getTotalsByVehicleInRange(vehicleId, range.fromEpochDay, range.toEpochDay)
+                        : fuelRecordDao.getTotalsInRange(range.fromEpochDay, range.toEpochDay));
+    }
+
+    // Monthly totals for the last `months` calendar months up to the current one, oldest first
+    // (all vehicles when vehicleId <= 0). Months without fill-ups are absent from the list.
+    public LiveData<List<MonthlyTotals>> getMonthlyTrend(long vehicleId, int months) {
+        Calendar c = Calendar.getInstance();
+        int toYearMonth = c.get(Calendar.YEAR) * 100 + c.get(Calendar.MONTH) + 1;
+        c.add(Calendar.MONTH, -(Math.max(1, months) - 1));
+        int fromYearMonth = c.get(Calendar.YEAR) * 100 + c.get(Calendar.MONTH) + 1;
+        return streams.get("trend:" + vehicleId + ":" + fromYearMonth + ":" + toYearMonth, () ->
+                vehicleId > 0
+                        ? monthlyRollupDao.getByVehicle(vehicleId, fromYearMonth, toYearMonth)
+                        : monthlyRollupDao.getFleet(fromYearMonth, toYearMonth));
+    }
+
+    // Totals of one calendar month from the rollup (all vehicles when vehicleId <= 0), or null when
+    // the month has no fill-ups. Runs on the calling thread, so never call it from the UI thread.
+    public MonthlyTotals loadMonthTotals(long vehicleId, int yearMonth) {
+        return vehicleId > 0
+                ? monthlyRollupDao.getMonthSync(vehicleId, yearMonth)
+                : monthlyRollupDao.getFleetMonthSync(yearMonth);
+    }
+
+    // Median / p90 / spread of one vehicle's RM/km and L/100km, read from its interval columns only.
+    // Runs on the analytics thread, which skips requests `wanted` no longer asks for, so a burst of
+    // changes reads the history once.
+    public void loadEfficiencyStats(long vehicleId, BooleanSupplier wanted, Consumer<EfficiencyStats> listener) {
+        ANALYTICS_EXECUTOR.execute(() -> {
+            if (!wanted.getAsBoolean()) return;
+            EfficiencyStats stats = new EfficiencyStats();
+            try (Cursor c = fuelRecordDao.getIntervalsByVehicle(vehicleId)) {
+                while (c.moveToNext()) {
+                    if (c.isNull(0) || c.isNull(1)) continue;
+                    stats.add(c.getDouble(0), c.getDouble(1));
+                }
+            }
+            listener.accept(stats);
+        });
+    }
+
+    // Record count for the log header (all vehicles when vehicleId <= 0)
+    public LiveData<Integer> countRecords(long vehicleId) {
+        return streams.get("count:" + vehicleId, () ->
+                vehicleId > 0 ? fuelRecordDao.countByVehicle(vehicleId) : fuelRecordDao.countAll());
     }
 
     /** Alias used by FuelViewModel */
-    // Saves a new fuel log on a background thread
-    public void insert(FuelRecord r) {
-        FuelDatabase.DB_EXECUTOR.execute(() -> fuelRecordDao.insert(r));
+    // Saves a new fuel log on a background thread; completes with the new record ID
+    public CompletableFuture<Long> insert(FuelRecord r) {
+        final long requestedId = r.getId();
+        return writeQueue.submit(() -> {
+            // insertRecord() assigns the id (and efficiency) on r; a replay after a batch rollback
+            // must start from the caller's id again, not the rolled-back one.
+            r.setId(requestedId);
+            return fuelRecordDao.insertRecord(r);
+        }, FuelRecordChanges::publish)
+                .thenApply(change -> change.record.getId());
     }
 
     /** Alias used by FuelViewModel */
     // Deletes a specific record object on a background thread
-    public void delete(FuelRecord r) {
-        FuelDatabase.DB_EXECUTOR.execute(() -> fuelRecordDao.delete(r));
+    public CompletableFuture<Boolean> delete(FuelRecord r) {
+        return deleteFuelRecordById(r.getId());
+    }
+
+    // Deletes a record by ID (useful for swipe-to-delete actions in the list).
+    // Completes with false if the record was already gone.
+    public CompletableFuture<Boolean> deleteFuelRecordById(long id) {
+        // Used by log screen for quick deletion; changes are announced after the commit.
+        return writeQueue.submit(() -> fuelRecordDao.deleteRecord(id), change -> {
+            if (change != null) FuelRecordChanges.publish(change);
+        }).thenApply(change -> change != null);
+    }
+
+    // ---------------- Import / Export ----------------
+    // Streams a CSV file into the database in chunks (see FuelCsvImporter).
+    // Returns the running importer so the caller can cancel it; progress goes to the listener.
+    public FuelCsvImporter importCsv(Uri uri, FuelCsvImporter.Listener listener) {
+        FuelCsvImporter importer = new FuelCsvImporter(db);
+        FILE_EXECUTOR.execute(() -> {
+            InputStream in;
+            try {
+                in = app.getContentResolver().openInputStream(uri);
+            } catch (FileNotFoundException e) {
+                in = null;
+            }
+            if (in == null) {
+                listener.onStatus(FuelCsvImporter.failed("Could not open file"));
+                return;
+            }
+            importer.run(in, listener);
+        });
+        return importer;
     }
 
-    // Deletes a record by ID (useful for swipe-to-delete actions in the list)
-    public void deleteFuelRecordById(long id) {
-        // Used by log screen for quick deletion.
-        FuelDatabase.DB_EXECUTOR.execute(() -> fuelRecordDao.deleteById(id));
+    // Streams the whole history to the given document (see FuelExporter)
+    public void export(Uri uri, FuelExporter.Format format, FuelExporter.Listener listener) {
+        FILE_EXECUTOR.execute(() -> {
+            OutputStream out;
+            try {
+                // "wt" truncates when the user picks an existing file.
+                out = app.getContentResolver().openOutputStream(uri, "wt");
+            } catch (FileNotFoundException e) {
+                out = null;
+            }
+            if (out == null) {
+                listener.onFinished(new FuelExporter.Result(0, "Could not open file"));
+                return;
+            }
+            listener.onFinished(new FuelExporter(db).run(out, format));
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+package com.example.fuelwiselog.data;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Coalesces small writes into one transaction on FuelDatabase.DB_EXECUTOR.
+// Writes queued within FLUSH_DELAY_MS of the first one (or until MAX_BATCH is reached) commit together,
+// so a burst of deletes or quick entries costs one commit and one Room invalidation instead of one each.
+// Every write still gets its own future, completed once its transaction has committed.
+// If one write throws, the batch rolls back and each write is replayed in its own transaction, so a
+// Write may run twice and must be safe to re-run (see Write).
+final class FuelWriteQueue {
+
+    static final long FLUSH_DELAY_MS = 4;
+    static final int MAX_BATCH = 64;
+
+    // The database work of one write; runs inside the batch transaction.
+    // It may run again after a rollback, so it must reset anything the earlier attempt changed on its
+    // inputs (e.g. an id assigned to the caller's entity) and give the same result when re-run.
+    interface Write<T> {
+        T apply();
+    }
+
+    // Runs on the DB executor after the commit, before the future completes (e.g. publishing changes)
+    interface Committed<T> {
+        void onCommitted(T result);
+    }
+
+    private static final class Pending<T> {
+        final Write<T> write;
+        @Nullable final Committed<T> committed;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+
+        Pending(Write<T> write, @Nullable Committed<T> committed) {
+            this.write = write;
+            this.committed = committed;
+        }
+
+        void run() {
+            result = write.apply();
+        }
+
+        // The future completes even if the callback throws, so the rest of the batch still completes
+        void complete() {
+            try {
+                if (committed != null) committed.onCommitted(result);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                future.complete(result);
+            }
+        }
+
+        void fail(Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+
+    private final FuelDatabase db;
+    // Only delays the flush; the flush itself always runs on DB_EXECUTOR
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+    private final Object lock = new Object();
+    private List<Pending<?>> pending = new ArrayList<>();
+    private boolean flushScheduled;
+
+    FuelWriteQueue(FuelDatabase db) {
+        this.db = db;
+    }
+
+    <T> CompletableFuture<T> submit(Write<T> write, @Nullable Committed<T> committed) {
+        Pending<T> p = new Pending<>(write, committed);
+        boolean flushNow = false;
+        boolean schedule = false;
+        synchronized (lock) {
+            pending.add(p);
+            if (pending.size() >= MAX_BATCH) {
+                flushNow = true;
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                schedule = true;
+            }
+        }
+        if (flushNow) {
+            FuelDatabase.DB_EXECUTOR.execute(this::flush);
+        } else if (schedule) {
+            timer.schedule(() -> FuelDatabase.DB_EXECUTOR.execute(this::flush), FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+        return p.future;
+    }
+
+    <T> CompletableFuture<T> submit(Write<T> write) {
+        return submit(write, null);
+    }
+
+    // DB_EXECUTOR: commits everything queued so far, at most MAX_BATCH writes per transaction
+    private void flush() {
+        List<Pending<?>> batch;
+        boolean more;
+        synchronized (lock) {
+            if (pending.isEmpty()) return;
+            if (pending.size() <= MAX_BATCH) {
+                batch = pending;
+                pending = new ArrayList<>();
+            } else {
+                batch = new ArrayList<>(pending.subList(0, MAX_BATCH));
+                pending.subList(0, MAX_BATCH).clear();
+            }
+            more = !pending.isEmpty();
+            flushScheduled = more;
+        }
+        if (more) FuelDatabase.DB_EXECUTOR.execute(this::flush);
+
+        try {
+            db.runInTransaction(() -> {
+                for (Pending<?> p : batch) p.run();
+            });
+        } catch (RuntimeException e) {
+            // One write failed and rolled back the whole batch: replay each on its own so only it fails.
+            if (batch.size() == 1) {
+                batch.get(0).fail(e);
+            } else {
+                for (Pending<?> p : batch) runAlone(p);
+            }
+            return;
+        } catch (Throwable t) {
+            // An Error is not a bad write; nothing committed, so fail the batch without replaying it.
+            for (Pending<?> p : batch) p.fail(t);
+            return;
+        }
+        for (Pending<?> p : batch) p.complete();
+    }
+
+    private void runAlone(Pending<?> p) {
+        try {
+            db.runInTransaction(p::run);
+        } catch (Throwable t) {
+            p.fail(t);
+            return;
+        }
+        p.complete();
+    }
+}
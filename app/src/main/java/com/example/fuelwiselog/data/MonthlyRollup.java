@@ -0,0 +1,61 @@
+package com.example.fuelwiselog.data;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+// Defines the "fuel_monthly_rollup" table: per-vehicle totals for each calendar month (yearMonth = 202403),
+// kept up to date by FuelRecordDao in the same transaction as every record write.
+// A 12-month trend reads 12 rows instead of scanning the history.
+@Entity(
+        tableName = "fuel_monthly_rollup",
+        primaryKeys = {"vehicleId", "yearMonth"},
+        // Deleting a vehicle cascades to its records and to its months.
+        foreignKeys = @ForeignKey(
+                entity = Vehicle.class,
+                parentColumns = "id",
+                childColumns = "vehicleId",
+                onDelete = ForeignKey.CASCADE
+        )
+)
+public class MonthlyRollup {
+
+    private long vehicleId;
+
+    // Month of the fill-up date as year * 100 + month
+    private int yearMonth;
+
+    // Totals over the month's fill-ups
+    private int recordCount;
+    private double totalCostRm;
+    private double totalLiters;
+
+    // Distance driven up to the month's fill-ups (those with a previous fill-up to compare with)
+    private int efficiencyCount;
+    private double sumDistanceKm;
+
+    public MonthlyRollup(long vehicleId, int yearMonth) {
+        this.vehicleId = vehicleId;
+        this.yearMonth = yearMonth;
+    }
+
+    public long getVehicleId() { return vehicleId; }
+    public void setVehicleId(long vehicleId) { this.vehicleId = vehicleId; }
+
+    public int getYearMonth() { return yearMonth; }
+    public void setYearMonth(int yearMonth) { this.yearMonth = yearMonth; }
+
+    public int getRecordCount() { return recordCount; }
+    public void setRecordCount(int recordCount) { this.recordCount = recordCount; }
+
+    public double getTotalCostRm() { return totalCostRm; }
+    public void setTotalCostRm(double totalCostRm) { this.totalCostRm = totalCostRm; }
+
+    public double getTotalLiters() { return totalLiters; }
+    public void setTotalLiters(double totalLiters) { this.totalLiters = totalLiters; }
+
+    public int getEfficiencyCount() { return efficiencyCount; }
+    public void setEfficiencyCount(int efficiencyCount) { this.efficiencyCount = efficiencyCount; }
+
+    public double getSumDistanceKm() { return sumDistanceKm; }
+    public void setSumDistanceKm(double sumDistanceKm) { this.sumDistanceKm = sumDistanceKm; }
+}
@@ -0,0 +1,40 @@
+package com.example.fuelwiselog.data;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import java.util.List;
+
+// Read side of the "fuel_monthly_rollup" table; the incremental updates live in FuelRecordDao next
+// to the record writes, and MIGRATION_6_7 seeds it from existing records. Months without fill-ups have no row.
+@Dao
+public interface MonthlyRollupDao {
+
+    // One vehicle's months in [fromYearMonth, toYearMonth], oldest first
+    @Query("SELECT yearMonth, recordCount, totalCostRm, totalLiters, efficiencyCount, sumDistanceKm"
+            + " FROM fuel_monthly_rollup WHERE vehicleId = :vehicleId"
+            + " AND yearMonth BETWEEN :fromYearMonth AND :toYearMonth ORDER BY yearMonth ASC")
+    LiveData<List<MonthlyTotals>> getByVehicle(long vehicleId, int fromYearMonth, int toYearMonth);
+
+    // The same months summed over every vehicle
+    @Query("SELECT yearMonth, SUM(recordCount) AS recordCount, SUM(totalCostRm) AS totalCostRm,"
+            + " SUM(totalLiters) AS totalLiters, SUM(efficiencyCount) AS efficiencyCount,"
+            + " SUM(sumDistanceKm) AS sumDistanceKm"
+            + " FROM fuel_monthly_rollup WHERE yearMonth BETWEEN :fromYearMonth AND :toYearMonth"
+            + " GROUP BY yearMonth ORDER BY yearMonth ASC")
+    LiveData<List<MonthlyTotals>> getFleet(int fromYearMonth, int toYearMonth);
+
+    // One month of one vehicle (primary-key lookup), or null when it has no fill-ups
+    @Query("SELECT yearMonth, recordCount, totalCostRm, totalLiters, efficiencyCount, sumDistanceKm"
+            + " FROM fuel_monthly_rollup WHERE vehicleId = :vehicleId AND yearMonth = :yearMonth")
+    MonthlyTotals getMonthSync(long vehicleId, int yearMonth);
+
+    // One month summed over every vehicle, or null when it has no fill-ups.
+    // Reads one row per vehicle that month, never the records themselves.
+    @Query("SELECT yearMonth, SUM(recordCount) AS recordCount, SUM(totalCostRm) AS totalCostRm,"
+            + " SUM(totalLiters) AS totalLiters, SUM(efficiencyCount) AS efficiencyCount,"
+            + " SUM(sumDistanceKm) AS sumDistanceKm"
+            + " FROM fuel_monthly_rollup WHERE yearMonth = :yearMonth GROUP BY yearMonth")
+    MonthlyTotals getFleetMonthSync(int yearMonth);
+}
@@ -0,0 +1,14 @@
+package com.example.fuelwiselog.data;
+
+// Result row of the monthly trend queries in MonthlyRollupDao (one vehicle or summed over the fleet)
+public class MonthlyTotals {
+
+    // year * 100 + month, e.g. 202403
+    public int yearMonth;
+
+    public int recordCount;
+    public double totalCostRm;
+    public double totalLiters;
+    public int efficiencyCount;
+    public double sumDistanceKm;
+}
@@ -0,0 +1,22 @@
+package com.example.fuelwiselog.data;
+
+import androidx.annotation.Nullable;
+
+// Result row of the date-range summary queries in FuelRecordDao
+public class RangeTotals {
+
+    // Fill-ups dated inside the range and their totals
+    public int records;
+    public double totalCostRm;
+    public double totalLiters;
+
+    // Fill-ups in the range that have efficiency; the first one is measured from the fill-up before the range
+    public int intervals;
+    public double distanceKm;
+
+    // Averages over those fill-ups; null when intervals is 0
+    @Nullable
+    public Double avgRmPerKm;
+    @Nullable
+    public Double avgLitersPer100Km;
+}
@@ -0,0 +1,68 @@
+package com.example.fuelwiselog.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// The repository's LiveData streams, one per query key for the whole process. Every observer of a
+// key shares one underlying Room query: it runs while anyone is active and re-runs only on table
+// invalidation, and a late observer gets the cached last value immediately.
+// A stream with no observers left is dropped after LINGER_MS, so hopping between screens (dashboard
+// -> log -> back) picks up the same stream and its value instead of re-querying.
+final class SharedStreams {
+
+    static final long LINGER_MS = 10_000;
+
+    private final Map<String, Shared<?>> streams = new HashMap<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // The shared stream for key, creating it from source on first use
+    @SuppressWarnings("unchecked")
+    synchronized <T> LiveData<T> get(String key, Supplier<LiveData<T>> source) {
+        Shared<T> s = (Shared<T>) streams.get(key);
+        if (s == null) {
+            s = new Shared<>(key, source.get());
+            streams.put(key, s);
+        }
+        return s;
+    }
+
+    private synchronized void evictIfUnused(Shared<?> s) {
+        // Stopped screens keep their (inactive) observers; check again until they are gone too.
+        if (s.hasActiveObservers()) return;
+        if (s.hasObservers()) {
+            mainHandler.postDelayed(s.evict, LINGER_MS);
+        } else if (streams.get(s.key) == s) {
+            streams.remove(s.key);
+        }
+    }
+
+    // Forwards the source while active; LiveData's own active count is the reference count
+    private final class Shared<T> extends MediatorLiveData<T> {
+        final String key;
+        final Runnable evict = () -> evictIfUnused(this);
+
+        Shared(String key, LiveData<T> source) {
+            this.key = key;
+            addSource(source, this::setValue);
+        }
+
+        @Override
+        protected void onActive() {
+            super.onActive();
+            mainHandler.removeCallbacks(evict);
+        }
+
+        @Override
+        protected void onInactive() {
+            super.onInactive();
+            mainHandler.postDelayed(evict, LINGER_MS);
+        }
+    }
+}
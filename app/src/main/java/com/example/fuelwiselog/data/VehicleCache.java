@@ -0,0 +1,97 @@
+package com.example.fuelwiselog.data;
+
+import android.util.LongSparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.room.InvalidationTracker;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Process-wide id -> Vehicle lookup, owned by FuelDatabase (see FuelDatabase.vehicleCache()).
+// The vehicles table is read once at start and again only when Room's InvalidationTracker reports
+// a write to it; every screen reads the same immutable Snapshot instead of querying or scanning.
+public final class VehicleCache {
+
+    private final VehicleDao vehicleDao;
+    private final Executor executor;
+    private final MutableLiveData<Snapshot> snapshots = new MutableLiveData<>();
+    private volatile Snapshot current = Snapshot.EMPTY;
+    // Set while a reload is queued but not started, so a burst of invalidations reads the table once
+    private final AtomicBoolean reloadQueued = new AtomicBoolean(false);
+
+    // Held strongly by the tracker, which lives as long as the database (i.e. the process)
+    private final InvalidationTracker.Observer observer = new InvalidationTracker.Observer("vehicles") {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            reload();
+        }
+    };
+
+    VehicleCache(FuelDatabase db) {
+        vehicleDao = db.vehicleDao();
+        executor = db.getQueryExecutor();
+        // Registering may sync triggers on an open database, so keep it off the caller's (main) thread.
+        // The first read is queued after it, so no write can fall between the read and the observer.
+        executor.execute(() -> {
+            db.getInvalidationTracker().addObserver(observer);
+            reload();
+        });
+    }
+
+    // Latest snapshot; empty until the first read completes
+    public Snapshot current() {
+        return current;
+    }
+
+    // Emits every new snapshot; observers attached later get the latest one straight away
+    public LiveData<Snapshot> getSnapshots() {
+        return snapshots;
+    }
+
+    @Nullable
+    public Vehicle get(long vehicleId) {
+        return current.get(vehicleId);
+    }
+
+    private void reload() {
+        if (!reloadQueued.compareAndSet(false, true)) return;
+        executor.execute(() -> {
+            reloadQueued.set(false);
+            Snapshot s = new Snapshot(vehicleDao.getAllSortedSync());
+            current = s;
+            snapshots.postValue(s);
+        });
+    }
+
+    // Immutable vehicles list (name order, as shown in the dropdowns) plus a LongSparseArray from
+    // primitive id to Vehicle (no boxing of the key), like VehicleStyle.Table
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(Collections.emptyList());
+
+        private final List<Vehicle> list;
+        private final LongSparseArray<Vehicle> byId;
+
+        Snapshot(List<Vehicle> vehicles) {
+            list = Collections.unmodifiableList(vehicles);
+            byId = new LongSparseArray<>(vehicles.size());
+            for (Vehicle v : vehicles) byId.put(v.getId(), v);
+        }
+
+        public List<Vehicle> list() {
+            return list;
+        }
+
+        @Nullable
+        public Vehicle get(long vehicleId) {
+            return byId.get(vehicleId);
+        }
+    }
+}
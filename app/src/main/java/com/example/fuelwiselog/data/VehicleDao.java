@@ -13,6 +13,14 @@ public interface VehicleDao {
     @Query("SELECT * FROM vehicles ORDER BY name COLLATE NOCASE")
     LiveData<List<Vehicle>> getAll();
 
+    // getAll() without LiveData, for VehicleCache
+    @Query("SELECT * FROM vehicles ORDER BY name COLLATE NOCASE")
+    List<Vehicle> getAllSortedSync();
+
+    // Same list without LiveData, for background jobs such as CSV import
+    @Query("SELECT * FROM vehicles")
+    List<Vehicle> getAllSync();
+
     // Adds a new vehicle to the database
     @Insert
     long insert(Vehicle vehicle);
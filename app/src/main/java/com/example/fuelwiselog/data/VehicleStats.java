@@ -0,0 +1,76 @@
+package com.example.fuelwiselog.data;
+
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.PrimaryKey;
+
+// Defines the "vehicle_stats" table: running totals per vehicle, kept up to date by FuelRecordDao
+// in the same transaction as every record insert/delete. The dashboard reads one row instead of the history.
+@Entity(
+        tableName = "vehicle_stats",
+        // Deleting a vehicle cascades to its records and to this row, so nothing is left stale.
+        foreignKeys = @ForeignKey(
+                entity = Vehicle.class,
+                parentColumns = "id",
+                childColumns = "vehicleId",
+                onDelete = ForeignKey.CASCADE
+        )
+)
+public class VehicleStats {
+
+    // One row per vehicle (created on its first fill-up)
+    @PrimaryKey
+    private long vehicleId;
+
+    // Totals over every record of the vehicle
+    private int recordCount;
+    private double totalCostRm;
+    private double totalLiters;
+
+    // Lowest/highest mileage logged; null when the vehicle has no records left
+    @Nullable
+    private Double minMileageKm;
+    @Nullable
+    private Double maxMileageKm;
+
+    // Sums over records that have efficiency (i.e. not the first fill-up), for the averages
+    private int efficiencyCount;
+    private double sumDistanceKm;
+    private double sumRmPerKm;
+    private double sumLitersPer100Km;
+
+    public VehicleStats(long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+
+    public long getVehicleId() { return vehicleId; }
+    public void setVehicleId(long vehicleId) { this.vehicleId = vehicleId; }
+
+    public int getRecordCount() { return recordCount; }
+    public void setRecordCount(int recordCount) { this.recordCount = recordCount; }
+
+    public double getTotalCostRm() { return totalCostRm; }
+    public void setTotalCostRm(double totalCostRm) { this.totalCostRm = totalCostRm; }
+
+    public double getTotalLiters() { return totalLiters; }
+    public void setTotalLiters(double totalLiters) { this.totalLiters = totalLiters; }
+
+    @Nullable public Double getMinMileageKm() { return minMileageKm; }
+    public void setMinMileageKm(@Nullable Double minMileageKm) { this.minMileageKm = minMileageKm; }
+
+    @Nullable public Double getMaxMileageKm() { return maxMileageKm; }
+    public void setMaxMileageKm(@Nullable Double maxMileageKm) { this.maxMileageKm = maxMileageKm; }
+
+    public int getEfficiencyCount() { return efficiencyCount; }
+    public void setEfficiencyCount(int efficiencyCount) { this.efficiencyCount = efficiencyCount; }
+
+    public double getSumDistanceKm() { return sumDistanceKm; }
+    public void setSumDistanceKm(double sumDistanceKm) { this.sumDistanceKm = sumDistanceKm; }
+
+    public double getSumRmPerKm() { return sumRmPerKm; }
+    public void setSumRmPerKm(double sumRmPerKm) { this.sumRmPerKm = sumRmPerKm; }
+
+    public double getSumLitersPer100Km() { return sumLitersPer100Km; }
+    public void setSumLitersPer100Km(double sumLitersPer100Km) { this.sumLitersPer100Km = sumLitersPer100Km; }
+}
@@ -0,0 +1,14 @@
+package com.example.fuelwiselog.data;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+// Read side of the "vehicle_stats" table; the write side lives in FuelRecordDao next to the record writes
+@Dao
+public interface VehicleStatsDao {
+
+    // Running totals for one vehicle; null until its first fill-up is logged
+    @Query("SELECT * FROM vehicle_stats WHERE vehicleId = :vehicleId")
+    LiveData<VehicleStats> getByVehicle(long vehicleId);
+}
@@ -0,0 +1,34 @@
+package com.example.fuelwiselog.ui;
+
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Shared differ setup for the list adapters: DiffUtil runs on one dedicated thread instead of
+// AsyncListDiffer's default pool, so list diffs queue behind each other and never on the UI thread.
+final class AdapterDiffing {
+
+    private static final ExecutorService DIFF_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private AdapterDiffing() {}
+
+    static <T> AsyncDifferConfig<T> config(DiffUtil.ItemCallback<T> diff) {
+        return new AsyncDifferConfig.Builder<>(diff)
+                .setBackgroundThreadExecutor(DIFF_EXECUTOR)
+                .build();
+    }
+
+    // Union of the change flags queued for one holder (payloads are Integer bit sets).
+    // 0 means "bind everything": no payloads, or one this adapter did not post.
+    static int flags(List<Object> payloads) {
+        int flags = 0;
+        for (Object p : payloads) {
+            if (!(p instanceof Integer)) return 0;
+            flags |= (Integer) p;
+        }
+        return flags;
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.fuelwiselog.ui;
 
 import android.app.DatePickerDialog;
-import android.graphics.Color;
 import android.os.Bundle;
 import android.widget.ArrayAdapter;
 import android.widget.Toast;
@@ -89,6 +88,20 @@ public class AddRecordActivity extends AppCompatActivity {
             }
         });
 
+        // Vehicle styles are built off the main thread; the preview is filled once they arrive or change
+        viewModel.getVehicleStyles().observe(this, styles -> renderPreview());
+
+        // Last mileage of the selected vehicle, to validate the current entry (prevent logic errors).
+        viewModel.getSelectedLastMileage().observe(this, last -> {
+            if (last == null) {
+                lastMileage = -1;
+                binding.tvLastMileage.setText("Last recorded: — km");
+            } else {
+                lastMileage = last;
+                binding.tvLastMileage.setText("Last recorded: " + ((long) lastMileage) + " km");
+            }
+        });
+
         binding.btnSave.setOnClickListener(v -> saveRecord());
     }
 
@@ -110,34 +123,27 @@ public class AddRecordActivity extends AppCompatActivity {
     // Updates UI with selected vehicle info and fetches its last mileage
     private void setSelectedVehicle(long vehicleId) {
         selectedVehicleId = vehicleId;
+        renderPreview();
 
+        // Re-points the last-mileage stream observed in onCreate.
+        viewModel.setSelectedVehicle(vehicleId);
+    }
+
+    // Shows the selected vehicle's name, type, icon and colour
+    private void renderPreview() {
         // Find the selected vehicle to populate the preview.
-        Vehicle v = null;
-        for (Vehicle vv : vehicles) if (vv.getId() == vehicleId) { v = vv; break; }
+        VehicleStyle v = viewModel.findVehicleStyle(selectedVehicleId);
 
         if (v != null) {
             binding.layoutVehiclePreview.setVisibility(android.view.View.VISIBLE);
-            binding.tvPreviewName.setText(v.getName());
-            binding.tvPreviewType.setText(v.getType());
-            binding.tvPreviewVehicleIcon.setText(VehicleEmojiMapper.getEmoji(v.getType()));
-            try {
-                binding.cardPreviewColor.setCardBackgroundColor(Color.parseColor(v.getColorHex()));
-            } catch (Exception ignored) {}
+            binding.tvPreviewName.setText(v.name);
+            binding.tvPreviewType.setText(v.type);
+            binding.tvPreviewVehicleIcon.setText(v.icon);
+            binding.cardPreviewColor.setCardBackgroundColor(v.color);
 
             // update dropdown text to match
-            binding.actVehicle.setText(v.getName() + " (" + v.getType() + ")", false);
+            binding.actVehicle.setText(v.label, false);
         }
-
-        // Load last mileage to validate the current entry (prevent logic errors).
-        viewModel.getLastMileage(vehicleId).observe(this, last -> {
-            if (last == null) {
-                lastMileage = -1;
-                binding.tvLastMileage.setText("Last recorded: — km");
-            } else {
-                lastMileage = last;
-                binding.tvLastMileage.setText("Last recorded: " + ((long) lastMileage) + " km");
-            }
-        });
     }
 
     // Validates input fields and saves the data to the database
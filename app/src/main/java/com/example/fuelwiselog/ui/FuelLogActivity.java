@@ -2,23 +2,24 @@ package com.example.fuelwiselog.ui;
 
 import android.os.Bundle;
 import android.widget.ArrayAdapter;
+import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
-import com.example.fuelwiselog.data.FuelRecord;
+import com.example.fuelwiselog.data.EfficiencyAverage;
 import com.example.fuelwiselog.util.Prefs;
 import com.example.fuelwiselog.data.Vehicle;
 import com.example.fuelwiselog.databinding.ActivityFuelLogBinding;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 // Activity that displays the history of fuel records (The "Log" screen)
 public class FuelLogActivity extends AppCompatActivity {
@@ -29,7 +30,13 @@ public class FuelLogActivity extends AppCompatActivity {
     private FuelLogAdapter adapter;
 
     private List<Vehicle> vehicles = new ArrayList<>();
-    private List<FuelRecord> recordsMileageOrdered = new ArrayList<>();
+
+    // Views kept per type in the shared pool; a fast fling scraps about a screen of rows at once
+    static final int LOG_POOL_SIZE = 12;
+    // Month headers are a few per screen at most
+    private static final int LOG_HEADER_POOL_SIZE = 4;
+    // Rows just scrolled off that rebind without going through the pool
+    private static final int LOG_VIEW_CACHE = 4;
 
     private long filterVehicleId = -1; // -1 = All vehicles
     private final DecimalFormat df2 = new DecimalFormat("0.00");
@@ -44,34 +51,70 @@ public class FuelLogActivity extends AppCompatActivity {
 
         binding.btnBack.setOnClickListener(v -> finish());
 
-        // Set up the list adapter with a delete callback
-        adapter = new FuelLogAdapter(recordId -> {
-            // Confirm record deletion before removing.
-            new AlertDialog.Builder(FuelLogActivity.this)
-                    .setTitle("Delete record?")
-                    .setMessage("Delete this fuel record?")
-                    .setPositiveButton("Delete", (d, which) -> viewModel.deleteFuelRecordById(recordId))
-                    .setNegativeButton("Cancel", null)
-                    .show();
+        // Set up the list adapter with delete and month-totals callbacks
+        adapter = new FuelLogAdapter(new FuelLogAdapter.Actions() {
+            @Override public void onDelete(long recordId) {
+                // Confirm record deletion before removing.
+                new AlertDialog.Builder(FuelLogActivity.this)
+                        .setTitle("Delete record?")
+                        .setMessage("Delete this fuel record?")
+                        .setPositiveButton("Delete", (d, which) -> viewModel.deleteFuelRecordById(recordId))
+                        .setNegativeButton("Cancel", null)
+                        .show();
+            }
+
+            @Override public void onSectionShown(int yearMonth) {
+                viewModel.loadLogSectionTotals(yearMonth);
+            }
         });
 
-        binding.rvRecords.setLayoutManager(new LinearLayoutManager(this));
+        // Prefetch binds the next rows while the UI thread is idle between frames, so their text
+        // futures (see FuelLogAdapter) are usually done before the rows are measured.
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        layoutManager.setItemPrefetchEnabled(true);
+        binding.rvRecords.setLayoutManager(layoutManager);
+        binding.rvRecords.setHasFixedSize(true);
+        binding.rvRecords.setItemViewCacheSize(LOG_VIEW_CACHE);
+        binding.rvRecords.getRecycledViewPool().setMaxRecycledViews(FuelLogAdapter.VIEW_TYPE_RECORD, LOG_POOL_SIZE);
+        binding.rvRecords.getRecycledViewPool().setMaxRecycledViews(FuelLogAdapter.VIEW_TYPE_HEADER, LOG_HEADER_POOL_SIZE);
         binding.rvRecords.setAdapter(adapter);
+        // Month headers stay pinned at the top while their rows scroll under them.
+        binding.rvRecords.addItemDecoration(new StickyHeaderDecoration(adapter));
+
+        // Load the next page as the user nears the end of what is loaded.
+        binding.rvRecords.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                int last = layoutManager.findLastVisibleItemPosition();
+                if (last >= adapter.getItemCount() - FuelLogPager.PREFETCH_DISTANCE) {
+                    viewModel.loadMoreLog();
+                }
+            }
+        });
 
         // Observe vehicle list to populate the filter dropdown
-        viewModel.getVehicles().observe(this, list -> {
+        viewModel.getVehicleSnapshots().observe(this, snapshot -> {
             // Vehicles drive filter labels and display metadata.
-            vehicles = list;
+            vehicles = snapshot.list();
+            viewModel.setLogVehicles(snapshot);
             setupFilterDropdown();
-            recomputeUi();
+            applyFilter();
         });
 
-        // Observe all records (sorted by mileage) to perform efficiency calculations
-        viewModel.getAllRecordsOrderByVehicleMileageAsc().observe(this, list -> {
-            // Mileage-ordered records are used for efficiency math.
-            recordsMileageOrdered = list;
-            recomputeUi();
+        // Loaded pages of the log (newest first)
+        viewModel.getLogItems().observe(this, adapter::submitList);
+
+        // Count comes from the database so it covers pages that are not loaded yet
+        viewModel.getLogCount().observe(this, count -> {
+            int n = count == null ? 0 : count;
+            binding.tvCount.setText(n + " record" + (n == 1 ? "" : "s"));
+            binding.layoutEmpty.setVisibility(n == 0 ? android.view.View.VISIBLE : android.view.View.GONE);
         });
+
+        // Average card: each window is one aggregate query, the card just reads the latest rows.
+        viewModel.getAverageAllTime().observe(this, a -> updateAverageCard());
+        viewModel.getAverageLastN().observe(this, a -> updateAverageCard());
+        viewModel.getAverageLastDays().observe(this, a -> updateAverageCard());
     }
 
     // Configures the top dropdown to filter logs by specific vehicle
@@ -96,135 +139,46 @@ public class FuelLogActivity extends AppCompatActivity {
                 Vehicle v = vehicles.get(position - 1);
                 filterVehicleId = v.getId();
             }
-            recomputeUi();
+            applyFilter();
         });
     }
 
-    // Core Logic: Processes raw data to calculate efficiency and prepares the display list
-    private void recomputeUi() {
-        if (vehicles == null || recordsMileageOrdered == null) return;
-
-        // Map vehicles by id for fast lookup.
-        Map<Long, Vehicle> vehicleMap = new HashMap<>();
-        for (Vehicle v : vehicles) vehicleMap.put(v.getId(), v);
-
-        // Compute efficiency per record using mileage-ascending list.
-        Map<Long, FuelLogItem> itemByRecordId = new HashMap<>();
-
-        FuelRecord prev = null;
-        long prevVehicleId = -1;
-
-        // Iterate through records (sorted by mileage) to calculate distance between fill-ups
-        for (FuelRecord r : recordsMileageOrdered) {
-            FuelLogItem item = new FuelLogItem();
-            item.recordId = r.getId();
-            item.vehicleId = r.getVehicleId();
-            item.dateIso = r.getDateIso();
-            item.liters = r.getVolumeLiters();
-            item.costRm = r.getCostRm();
-            item.mileageKm = r.getMileageKm();
-
-            Vehicle v = vehicleMap.get(r.getVehicleId());
-            if (v != null) {
-                item.vehicleName = v.getName();
-                item.vehicleColorHex = v.getColorHex();
-                item.vehicleType = v.getType();
-            } else {
-                item.vehicleName = "Vehicle";
-                item.vehicleColorHex = "#B4A7D6";
-                item.vehicleType = "Other";
-            }
-
-            item.hasEfficiency = false;
-
-            // Efficiency Math: needs two consecutive records for the same vehicle
-            if (prev != null && prevVehicleId == r.getVehicleId()) {
-                // Only compute efficiency when records are consecutive for a vehicle.
-                double distance = r.getMileageKm() - prev.getMileageKm();
-                if (distance > 0) {
-                    item.hasEfficiency = true;
-                    item.distanceKm = distance;
-                    // Formula: Cost / Distance
-                    item.rmPerKm = r.getCostRm() / distance;
-                    // Formula: (Liters / Distance) * 100
-                    item.litersPer100Km = (r.getVolumeLiters() / distance) * 100.0;
-                }
-            }
-
-            itemByRecordId.put(item.recordId, item);
-
-            prev = r;
-            prevVehicleId = r.getVehicleId();
-        }
-
-        // Build display list (we sort by date desc; ISO date sorts well).
-        List<FuelLogItem> display = new ArrayList<>(itemByRecordId.values());
-        display.sort((a, b) -> {
-            String da = a.dateIso == null ? "" : a.dateIso;
-            String db = b.dateIso == null ? "" : b.dateIso;
-            return db.compareTo(da); // desc
-        });
-
-        // Apply vehicle filter after sorting.
-        if (filterVehicleId > 0) {
-            List<FuelLogItem> filtered = new ArrayList<>();
-            for (FuelLogItem i : display) if (i.vehicleId == filterVehicleId) filtered.add(i);
-            display = filtered;
-        }
+    // Pushes the current filter to the pager and points the average card at the right vehicle
+    private void applyFilter() {
+        if (vehicles == null) return;
 
-        adapter.submitList(display);
-
-        binding.tvCount.setText(display.size() + " record" + (display.size() == 1 ? "" : "s"));
-        binding.layoutEmpty.setVisibility(display.isEmpty() ? android.view.View.VISIBLE : android.view.View.GONE);
+        viewModel.setLogFilter(filterVehicleId);
 
         // Average efficiency card: if "All", fall back to selected vehicle.
         long avgVehicleId = (filterVehicleId == -1) ? Prefs.getSelectedVehicleId(this) : filterVehicleId;
-        updateAverageCard(avgVehicleId);
+        viewModel.setAverageVehicle(avgVehicleId);
     }
 
-    // Calculates and displays the overall average statistics for the top card
-    private void updateAverageCard(long vehicleId) {
-        if (vehicleId <= 0) {
-            binding.cardAverage.setVisibility(android.view.View.GONE);
-            return;
-        }
-
-        // Compute averages from mileage-ordered list for that vehicle.
-        List<FuelRecord> list = new ArrayList<>();
-        for (FuelRecord r : recordsMileageOrdered) if (r.getVehicleId() == vehicleId) list.add(r);
-
-        if (list.size() < 2) {
+    // Displays the all-time and rolling average statistics for the top card
+    private void updateAverageCard() {
+        EfficiencyAverage all = viewModel.getAverageAllTime().getValue();
+        if (all == null || all.intervals == 0 || all.avgRmPerKm == null || all.avgLitersPer100Km == null) {
             binding.cardAverage.setVisibility(android.view.View.GONE);
             return;
         }
 
-        double sumRmPerKm = 0;
-        double sumLPer100 = 0;
-        int count = 0;
-
-        for (int i = 1; i < list.size(); i++) {
-            FuelRecord cur = list.get(i);
-            FuelRecord prev = list.get(i - 1);
-
-            // Skip invalid or non-increasing mileage.
-            double dist = cur.getMileageKm() - prev.getMileageKm();
-            if (dist <= 0) continue;
-
-            double rmPerKm = cur.getCostRm() / dist;
-            double lPer100 = (cur.getVolumeLiters() / dist) * 100.0;
+        binding.cardAverage.setVisibility(android.view.View.VISIBLE);
+        binding.tvAvgRm.setText("RM " + df2.format(all.avgRmPerKm));
+        binding.tvAvgL.setText(df2.format(all.avgLitersPer100Km) + " L");
 
-            sumRmPerKm += rmPerKm;
-            sumLPer100 += lPer100;
-            count++;
-        }
+        bindRollingAverage(binding.tvAvgRecent, "Last " + FuelViewModel.AVERAGE_LAST_N + " fill-ups",
+                viewModel.getAverageLastN().getValue());
+        bindRollingAverage(binding.tvAvg90Days, "Last " + FuelViewModel.AVERAGE_LAST_DAYS + " days",
+                viewModel.getAverageLastDays().getValue());
+    }
 
-        if (count == 0) {
-            binding.cardAverage.setVisibility(android.view.View.GONE);
+    // One line of the card per rolling window; hidden when the window has no intervals
+    private void bindRollingAverage(TextView view, String label, EfficiencyAverage avg) {
+        if (avg == null || avg.intervals == 0 || avg.avgRmPerKm == null || avg.avgLitersPer100Km == null) {
+            view.setVisibility(android.view.View.GONE);
             return;
         }
-
-        binding.cardAverage.setVisibility(android.view.View.VISIBLE);
-        binding.tvAvgRm.setText("RM " + df2.format(sumRmPerKm / count));
-        binding.tvAvgL.setText(df2.format(sumLPer100 / count) + " L");
+        view.setVisibility(android.view.View.VISIBLE);
+        view.setText(label + ": RM " + df2.format(avg.avgRmPerKm) + " · " + df2.format(avg.avgLitersPer100Km) + " L");
     }
-}
\ No newline at end of file
+}
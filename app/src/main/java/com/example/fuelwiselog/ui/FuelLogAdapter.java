@@ -1,39 +1,68 @@
 package com.example.fuelwiselog.ui;
 
-import android.graphics.Color;
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.fuelwiselog.databinding.ItemFuelRecordBinding;
+import com.example.fuelwiselog.databinding.ItemLogMonthHeaderBinding;
 
-import java.text.DecimalFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-// Adapter class that manages the list of fuel records shown in the RecyclerView
-public class FuelLogAdapter extends ListAdapter<FuelLogItem, FuelLogAdapter.VH> {
+// Adapter class that manages the list of fuel records shown in the RecyclerView.
+// When only a row's vehicle presentation or its efficiency changed, the diff posts a payload and
+// only those views are rebound. Row text is measured and laid out on a background thread
+// (PrecomputedTextCompat), usually while RecyclerView is still prefetching the row.
+// Month header rows ask for their totals the first time they are bound without them.
+public class FuelLogAdapter extends ListAdapter<FuelLogItem, RecyclerView.ViewHolder> {
 
-    // Callback interface to handle delete clicks in the main Activity
+    // Callback interface to handle row actions in the main Activity
     public interface Actions {
         void onDelete(long recordId);
+        // A month header is shown before its totals are known
+        void onSectionShown(int yearMonth);
     }
 
+    // Change payloads (bit flags)
+    static final int PAYLOAD_VEHICLE = 1;
+    static final int PAYLOAD_EFFICIENCY = 1 << 1;
+    static final int PAYLOAD_TOTALS = 1 << 2;
+
+    static final int VIEW_TYPE_RECORD = 0;
+    static final int VIEW_TYPE_HEADER = 1;
+
+    // Lays out row text ahead of measure; one thread keeps the futures in bind order
+    private static final ExecutorService TEXT_EXECUTOR = Executors.newSingleThreadExecutor();
+
     private final Actions actions;
-    private final DecimalFormat df2 = new DecimalFormat("0.00");
-    private final DecimalFormat df0 = new DecimalFormat("0");
+    // Full binds so far (main thread only); the scroll test checks rows are not bound twice
+    private int fullBinds;
 
     public FuelLogAdapter(Actions actions) {
-        super(DIFF);
+        super(AdapterDiffing.config(DIFF));
         this.actions = actions;
     }
 
+    @Override
+    public int getItemViewType(int position) {
+        return getItem(position).isHeader ? VIEW_TYPE_HEADER : VIEW_TYPE_RECORD;
+    }
+
     // Creates a new view holder for a single list item layout
     @NonNull
     @Override
-    public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (viewType == VIEW_TYPE_HEADER) return createHeaderHolder(parent);
         ItemFuelRecordBinding b = ItemFuelRecordBinding.inflate(
                 LayoutInflater.from(parent.getContext()),
                 parent,
@@ -42,10 +71,75 @@ public class FuelLogAdapter extends ListAdapter<FuelLogItem, FuelLogAdapter.VH>
         return new VH(b);
     }
 
+    // Also used by StickyHeaderDecoration for the pinned copy
+    HeaderVH createHeaderHolder(@NonNull ViewGroup parent) {
+        return new HeaderVH(ItemLogMonthHeaderBinding.inflate(LayoutInflater.from(parent.getContext()), parent, false));
+    }
+
     // Binds data to the view at a specific position
     @Override
-    public void onBindViewHolder(@NonNull VH holder, int position) {
-        holder.bind(getItem(position));
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        fullBinds++;
+        FuelLogItem item = getItem(position);
+        if (holder instanceof HeaderVH) ((HeaderVH) holder).bind(item);
+        else ((VH) holder).bind(item);
+    }
+
+    // Partial rebind when the diff only reported payload changes
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        int flags = AdapterDiffing.flags(payloads);
+        // A header is two strings, so it is always bound whole.
+        if (flags == 0 || holder instanceof HeaderVH) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        FuelLogItem item = getItem(position);
+        VH vh = (VH) holder;
+        if ((flags & PAYLOAD_VEHICLE) != 0) vh.bindVehicle(item);
+        if ((flags & PAYLOAD_EFFICIENCY) != 0) vh.bindEfficiency(item);
+    }
+
+    int fullBindCount() {
+        return fullBinds;
+    }
+
+    boolean isHeader(int position) {
+        return position >= 0 && position < getItemCount() && getItem(position).isHeader;
+    }
+
+    // Position of the header of the section containing position, or NO_POSITION.
+    // Walks back at most one month of rows.
+    int sectionHeaderPosition(int position) {
+        for (int i = Math.min(position, getItemCount() - 1); i >= 0; i--) {
+            if (getItem(i).isHeader) return i;
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    FuelLogItem itemAt(int position) {
+        return getItem(position);
+    }
+
+    class HeaderVH extends RecyclerView.ViewHolder {
+        private final ItemLogMonthHeaderBinding b;
+
+        HeaderVH(ItemLogMonthHeaderBinding binding) {
+            super(binding.getRoot());
+            this.b = binding;
+        }
+
+        void bind(FuelLogItem header) {
+            b.tvMonth.setText(header.monthText);
+            if (header.totalsText != null) {
+                b.tvMonthTotals.setText(header.totalsText);
+            } else {
+                // Placeholder until the totals arrive in a republished list.
+                b.tvMonthTotals.setText("…");
+                actions.onSectionShown(header.yearMonth);
+            }
+        }
     }
 
     class VH extends RecyclerView.ViewHolder {
@@ -56,60 +150,93 @@ public class FuelLogAdapter extends ListAdapter<FuelLogItem, FuelLogAdapter.VH>
             this.b = binding;
         }
 
-        // Populates the UI elements with data from the FuelLogItem
+        // Populates the UI elements with data from the FuelLogItem.
+        // Text and colours were prepared by FuelLogPager, so this only assigns them.
         void bind(FuelLogItem item) {
             // Populate header details for the record row.
-            b.tvVehicleName.setText(item.vehicleName == null ? "Vehicle" : item.vehicleName);
-            b.tvDate.setText(item.dateIso == null ? "" : item.dateIso);
-            b.tvVehicleIcon.setText(VehicleEmojiMapper.getEmoji(item.vehicleType));
-
-            try {
-                b.cardColor.setCardBackgroundColor(Color.parseColor(item.vehicleColorHex));
-            } catch (Exception ignored) {}
+            bindVehicle(item);
+            setText(b.tvDate, item.dateIso == null ? "" : item.dateIso);
 
-            // Format and show stats.
-            b.tvVolume.setText(df2.format(item.liters) + "L");
-            b.tvCost.setText("RM" + df2.format(item.costRm));
-            b.tvMileage.setText(df0.format(item.mileageKm) + "km");
+            // Show stats.
+            setText(b.tvVolume, item.volumeText);
+            setText(b.tvCost, item.costText);
+            setText(b.tvMileage, item.mileageText);
 
             // Delegate delete action to the host screen (Activity).
             b.btnDelete.setOnClickListener(v -> actions.onDelete(item.recordId));
 
+            bindEfficiency(item);
+        }
+
+        void bindVehicle(FuelLogItem item) {
+            setText(b.tvVehicleName, item.vehicle.name);
+            setText(b.tvVehicleIcon, item.vehicle.icon);
+            b.cardColor.setCardBackgroundColor(item.vehicle.color);
+        }
+
+        void bindEfficiency(FuelLogItem item) {
             // Shows efficiency stats only if previous history exists; otherwise hides the block
             if (item.hasEfficiency) {
                 // Show efficiency block when enough data exists.
                 b.layoutEfficiency.setVisibility(android.view.View.VISIBLE);
                 b.tvNoEfficiency.setVisibility(android.view.View.GONE);
 
-                b.tvSince.setText("Since last fill-up (" + df0.format(item.distanceKm) + " km)");
-                b.tvRmPerKm.setText("RM " + df2.format(item.rmPerKm));
-                b.tvLPer100.setText(df2.format(item.litersPer100Km) + " L");
+                setText(b.tvSince, item.sinceText);
+                setText(b.tvRmPerKm, item.rmPerKmText);
+                setText(b.tvLPer100, item.litersPer100KmText);
             } else {
                 // Hide efficiency block for first or incomplete records.
                 b.layoutEfficiency.setVisibility(android.view.View.GONE);
                 b.tvNoEfficiency.setVisibility(android.view.View.VISIBLE);
             }
         }
+
+        // The view only blocks on the future if it is measured before the layout is ready
+        private void setText(AppCompatTextView view, CharSequence text) {
+            view.setTextFuture(PrecomputedTextCompat.getTextFuture(
+                    text, TextViewCompat.getTextMetricsParams(view), TEXT_EXECUTOR));
+        }
     }
 
     // DiffUtil optimization: calculates differences between lists to animate updates efficiently
     private static final DiffUtil.ItemCallback<FuelLogItem> DIFF = new DiffUtil.ItemCallback<FuelLogItem>() {
         @Override
         public boolean areItemsTheSame(@NonNull FuelLogItem oldItem, @NonNull FuelLogItem newItem) {
-            return oldItem.recordId == newItem.recordId;
+            if (oldItem.isHeader != newItem.isHeader) return false;
+            return oldItem.isHeader
+                    ? oldItem.yearMonth == newItem.yearMonth
+                    : oldItem.recordId == newItem.recordId;
         }
 
         @Override
         public boolean areContentsTheSame(@NonNull FuelLogItem o, @NonNull FuelLogItem n) {
+            if (o.isHeader) return safeEq(o.monthText, n.monthText) && safeEq(o.totalsText, n.totalsText);
+            return sameRecord(o, n) && o.vehicle.sameContent(n.vehicle) && sameEfficiency(o, n);
+        }
+
+        // Only called when areContentsTheSame was false; null asks for a full rebind
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull FuelLogItem o, @NonNull FuelLogItem n) {
+            if (o.isHeader) return PAYLOAD_TOTALS;
+            if (!sameRecord(o, n)) return null;
+            int flags = 0;
+            if (!o.vehicle.sameContent(n.vehicle)) flags |= PAYLOAD_VEHICLE;
+            if (!sameEfficiency(o, n)) flags |= PAYLOAD_EFFICIENCY;
+            return flags;
+        }
+
+        // Fields that only a full bind refreshes
+        private boolean sameRecord(FuelLogItem o, FuelLogItem n) {
             return o.vehicleId == n.vehicleId
-                    && safeEq(o.vehicleName, n.vehicleName)
-                    && safeEq(o.vehicleColorHex, n.vehicleColorHex)
-                    && safeEq(o.vehicleType, n.vehicleType)
                     && safeEq(o.dateIso, n.dateIso)
                     && o.liters == n.liters
                     && o.costRm == n.costRm
-                    && o.mileageKm == n.mileageKm
-                    && o.hasEfficiency == n.hasEfficiency
+                    && o.mileageKm == n.mileageKm;
+        }
+
+        private boolean sameEfficiency(FuelLogItem o, FuelLogItem n) {
+            return o.hasEfficiency == n.hasEfficiency
                     && o.distanceKm == n.distanceKm
                     && o.rmPerKm == n.rmPerKm
                     && o.litersPer100Km == n.litersPer100Km;
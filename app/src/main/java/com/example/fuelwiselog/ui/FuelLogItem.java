@@ -6,9 +6,16 @@ public class FuelLogItem {
     // Vehicle info is merged here so the list adapter doesn't need to look it up again
     public long recordId;
     public long vehicleId;
-    public String vehicleName;
-    public String vehicleColorHex;
-    public String vehicleType;
+    // Name, icon and parsed colour, shared by every row of the vehicle
+    VehicleStyle vehicle;
+
+    // Month section header rows (added by FuelLogPager) have no record: only the month and its totals
+    boolean isHeader;
+    // year * 100 + month of the record's date, or the header's month
+    int yearMonth;
+    String monthText;
+    // Header only; null until the month's totals have been loaded
+    String totalsText;
 
     // Record details displayed in the list row.
     // Raw data from the fill-up log
@@ -23,4 +30,13 @@ public class FuelLogItem {
     public double distanceKm;
     public double rmPerKm;
     public double litersPer100Km;
-}
\ No newline at end of file
+
+    // Row text, formatted on the log worker so binding a row only assigns strings
+    String volumeText;
+    String costText;
+    String mileageText;
+    // Set only when hasEfficiency
+    String sinceText;
+    String rmPerKmText;
+    String litersPer100KmText;
+}
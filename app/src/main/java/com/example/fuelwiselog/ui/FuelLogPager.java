@@ -0,0 +1,471 @@
+package com.example.fuelwiselog.ui;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.fuelwiselog.core.EpochDays;
+import com.example.fuelwiselog.core.FuelColumns;
+import com.example.fuelwiselog.core.LogKeys;
+import com.example.fuelwiselog.data.FuelRecord;
+import com.example.fuelwiselog.data.FuelRecordChange;
+import com.example.fuelwiselog.data.FuelRecordChanges;
+import com.example.fuelwiselog.data.FuelRepository;
+import com.example.fuelwiselog.data.MonthlyTotals;
+import com.example.fuelwiselog.data.VehicleCache;
+
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Loads the fuel log one keyset page at a time (newest first) so the screen never holds the whole table.
+// Queries and item building run on a background worker; the main thread only receives finished lists.
+// Single-record writes arrive as FuelRecordChange deltas and are patched into the loaded window.
+// The list is grouped by month: a header row goes before the first loaded row of each month.
+// A header's totals are read from the monthly rollup the first time the header is shown, then cached.
+// The worker keeps the grouped list itself and patches single rows and headers in place; publishing
+// copies it once (ListAdapter needs a list nobody mutates afterwards).
+class FuelLogPager {
+
+    static final int PAGE_SIZE = 50;
+    // Start loading the next page when the user is this many rows from the end
+    static final int PREFETCH_DISTANCE = 15;
+
+    private final FuelRepository repository;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final MutableLiveData<List<FuelLogItem>> items = new MutableLiveData<>(Collections.emptyList());
+
+    // Single worker: tasks run in order, so worker-owned state needs no locking.
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    // Set by close(); after it nothing more is queued (see execute)
+    private volatile boolean closed = false;
+
+    // Bumped by every filter change and bulk table change.
+    // Work started for an older generation stops early and never reaches the adapter.
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicBoolean loadingMore = new AtomicBoolean(false);
+    private volatile boolean endReached = false;
+
+    // ---- Main-thread inputs, handed to the worker as a snapshot with each generation ----
+    private long filterVehicleId = Long.MIN_VALUE; // nothing requested yet
+    private VehicleCache.Snapshot vehicles;
+
+    // ---- Worker-owned state: the grouped list (headers and rows, display order) and its sort keys ----
+    // Only the (day, id) sort key is kept per entry; pages arrive as FuelColumns and go straight to items.
+    // A header's key sorts just before the rows of its month (see LogKeys), so one binary search finds
+    // rows and headers alike.
+    private LogKeys rows = new LogKeys(PAGE_SIZE);
+    private List<FuelLogItem> display = new ArrayList<>();
+    // Record rows in display (headers excluded)
+    private int recordCount;
+    private VehicleStyle.Table vehicleStyles = VehicleStyle.Table.EMPTY;
+    // DecimalFormat is not thread-safe; these are only used on the worker
+    private final DecimalFormat df2 = new DecimalFormat("0.00");
+    private final DecimalFormat df0 = new DecimalFormat("0");
+    private long rowsVehicleId = -1;
+    // Header text per yearMonth for rowsVehicleId; a month is absent until its header asks for it
+    private final Map<Integer, String> sectionTotals = new HashMap<>();
+    private final String[] monthNames = new DateFormatSymbols().getMonths();
+
+    // Deltas are patched on the worker; bulk changes fall back to re-reading the loaded window
+    private final FuelRecordChanges.Listener changeListener = change -> {
+        if (change.type == FuelRecordChange.Type.RESET) {
+            // Any month may have changed; headers ask again when the reloaded list is bound.
+            execute(sectionTotals::clear);
+            mainHandler.post(this::reload);
+        } else {
+            final int gen = generation.get();
+            execute(() -> applyChange(gen, change));
+        }
+    };
+
+    FuelLogPager(FuelRepository repository) {
+        this.repository = repository;
+        FuelRecordChanges.addListener(changeListener);
+    }
+
+    LiveData<List<FuelLogItem>> getItems() {
+        return items;
+    }
+
+    // Switches the vehicle filter (-1 = all) and starts again from the newest record
+    void setFilter(long vehicleId) {
+        if (vehicleId == filterVehicleId) return;
+        filterVehicleId = vehicleId;
+        startGeneration(true);
+    }
+
+    // Vehicle names and colours are merged into the rows; a new list relabels what is loaded
+    // in memory, without re-reading any records
+    void setVehicles(VehicleCache.Snapshot snapshot) {
+        vehicles = snapshot;
+        if (filterVehicleId == Long.MIN_VALUE) return;
+        final int gen = generation.get();
+        execute(() -> restyle(gen, snapshot));
+    }
+
+    // Re-reads the loaded window so edits show up without losing the scroll depth
+    void reload() {
+        if (filterVehicleId != Long.MIN_VALUE) startGeneration(false);
+    }
+
+    // Called while scrolling; ignored if a page is already in flight or everything is loaded
+    void loadMore() {
+        if (endReached || filterVehicleId == Long.MIN_VALUE) return;
+        if (!loadingMore.compareAndSet(false, true)) return;
+        final int gen = generation.get();
+        execute(() -> {
+            try {
+                appendPage(gen);
+            } finally {
+                loadingMore.set(false);
+            }
+        });
+    }
+
+    // Called when a month header without totals is bound (in the list or pinned at the top).
+    // Reads one month of the rollup; repeated requests for a cached month cost nothing.
+    void loadSectionTotals(int yearMonth) {
+        final int gen = generation.get();
+        execute(() -> {
+            if (sectionTotals.containsKey(yearMonth)) return;
+            // Cached even if a newer generation is queued: that rebuild publishes it, or clears it on a filter change.
+            sectionTotals.put(yearMonth, totalsText(repository.loadMonthTotals(rowsVehicleId, yearMonth)));
+            if (!isStale(gen) && refreshHeader(yearMonth)) post(gen);
+        });
+    }
+
+    void close() {
+        closed = true;
+        FuelRecordChanges.removeListener(changeListener);
+        generation.incrementAndGet();
+        worker.shutdown();
+    }
+
+    // Queues a task unless the pager is closed. Calls that race close() (a change delivered from the
+    // writer thread, a reload posted before it) would be rejected by the shut-down worker; they are dropped.
+    private void execute(Runnable task) {
+        if (closed) return;
+        try {
+            worker.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (!closed) throw e;
+        }
+    }
+
+    // Starts a new generation with the current inputs; anything older in flight is dropped.
+    // fromTop = true restarts at the first page (filter change), otherwise the loaded window is kept.
+    private void startGeneration(boolean fromTop) {
+        final int gen = generation.incrementAndGet();
+        final long vehicleId = filterVehicleId;
+        final VehicleCache.Snapshot vehicleSnapshot = vehicles;
+        execute(() -> rebuild(gen, vehicleId, vehicleSnapshot, fromTop));
+    }
+
+    // ---------------- Worker thread ----------------
+
+    // Re-queries the window and rebuilds every item; commits only if still the latest generation.
+    // The window is re-read one keyset page at a time (same queries as scrolling), so a reload after a
+    // long scroll is many short indexed reads that stop early when superseded, never one deep query.
+    private void rebuild(int gen, long vehicleId, VehicleCache.Snapshot vehicleSnapshot, boolean fromTop) {
+        if (isStale(gen)) return;
+
+        // Per-vehicle styles are built once per vehicles-table version and shared by every row.
+        VehicleStyle.Table styles = VehicleStyle.Table.of(vehicleSnapshot);
+
+        boolean sameFilter = vehicleId == rowsVehicleId;
+        int target = (fromTop || !sameFilter) ? PAGE_SIZE : Math.max(PAGE_SIZE, recordCount);
+
+        LogKeys keys = new LogKeys(target + target / 8 + 1);
+        List<FuelLogItem> list = new ArrayList<>(target + target / 8 + 1);
+        int loaded = 0;
+        FuelColumns page = repository.loadLogPage(vehicleId, PAGE_SIZE);
+        boolean end;
+        while (true) {
+            if (isStale(gen)) return;
+            addPage(page, keys, list, styles, vehicleId);
+            loaded += page.size;
+            end = page.size < PAGE_SIZE;
+            if (end || loaded >= target) break;
+            int last = keys.size() - 1;
+            page = repository.loadLogPageAfter(vehicleId, keys.epochDay(last), keys.id(last), PAGE_SIZE);
+        }
+
+        // Commit and publish.
+        vehicleStyles = styles;
+        if (vehicleId != rowsVehicleId) sectionTotals.clear();
+        rowsVehicleId = vehicleId;
+        rows = keys;
+        display = list;
+        recordCount = loaded;
+        endReached = end;
+        post(gen);
+    }
+
+    // Swaps in a new vehicles table: only rows whose vehicle looks different get a new item
+    private void restyle(int gen, VehicleCache.Snapshot snapshot) {
+        // A newer rebuild is queued and styles its rows from the latest snapshot.
+        if (isStale(gen)) return;
+        VehicleStyle.Table styles = VehicleStyle.Table.of(snapshot);
+        if (styles == vehicleStyles) return;
+        vehicleStyles = styles;
+
+        boolean changed = false;
+        for (int i = 0; i < display.size(); i++) {
+            FuelLogItem item = display.get(i);
+            if (item.isHeader) continue;
+            VehicleStyle style = styles.get(item.vehicleId);
+            if (style.sameContent(item.vehicle)) continue;
+            display.set(i, withVehicle(item, style));
+            changed = true;
+        }
+        if (changed) post(gen);
+    }
+
+    // Loads the page after the last loaded row and builds only the new items
+    private void appendPage(int gen) {
+        if (isStale(gen) || endReached || rows.isEmpty()) return;
+
+        // The keyset cursor is the last row already shown (the list never ends with a header).
+        int last = rows.size() - 1;
+        FuelColumns page = repository.loadLogPageAfter(rowsVehicleId, rows.epochDay(last), rows.id(last), PAGE_SIZE);
+        if (isStale(gen)) return;
+
+        addPage(page, rows, display, vehicleStyles, rowsVehicleId);
+        recordCount += page.size;
+        endReached = page.size < PAGE_SIZE;
+        post(gen);
+    }
+
+    // Appends a page's rows, with a header wherever a new month starts
+    private void addPage(FuelColumns page, LogKeys keys, List<FuelLogItem> list, VehicleStyle.Table styles,
+                         long vehicleId) {
+        for (int i = 0; i < page.size; i++) {
+            FuelLogItem item = toItem(page, i, styles);
+            if (list.isEmpty() || list.get(list.size() - 1).yearMonth != item.yearMonth) {
+                keys.add(LogKeys.headerDay(item.yearMonth), LogKeys.HEADER_ID);
+                list.add(header(item.yearMonth, vehicleId));
+            }
+            keys.add(page.epochDays[i], page.ids[i]);
+            list.add(item);
+        }
+    }
+
+    // Patches one inserted/deleted record, its successor and their month headers into the loaded window.
+    // Positions are found by binary search on the newest-first order, so nothing else is rebuilt; only
+    // an insert or delete shifts the entries after it.
+    // Idempotent: a rebuild that already saw the write leaves nothing (or the same row) to patch.
+    private void applyChange(int gen, FuelRecordChange change) {
+        if (change.record == null) return;
+        // The write moved its month's rollup (and the successor's, whose distance changed).
+        int month = EpochDays.yearMonth(change.record.getDateEpochDay());
+        boolean dropped = sectionTotals.remove(month) != null;
+        int successorMonth = change.successor == null ? -1 : EpochDays.yearMonth(change.successor.getDateEpochDay());
+        boolean successorDropped = change.successor != null && sectionTotals.remove(successorMonth) != null;
+
+        // A newer rebuild is queued and will read the committed state anyway.
+        if (isStale(gen)) return;
+
+        boolean changed = false;
+        FuelRecord r = change.record;
+        if (inWindowFilter(r)) {
+            int pos = rows.search(r.getDateEpochDay(), r.getId());
+            if (change.type == FuelRecordChange.Type.INSERTED) {
+                if (pos >= 0) {
+                    changed = replaceAt(pos, r);
+                } else {
+                    int at = -pos - 1;
+                    // Past the last loaded row it belongs to a page that is not loaded yet.
+                    if (at < rows.size() || endReached) {
+                        insertRecord(at, r);
+                        changed = true;
+                    }
+                }
+            } else if (pos >= 0) {
+                removeRecord(pos);
+                changed = true;
+            }
+        }
+
+        // The successor's efficiency was recomputed against its new predecessor.
+        FuelRecord next = change.successor;
+        if (next != null && inWindowFilter(next)) {
+            int pos = rows.search(next.getDateEpochDay(), next.getId());
+            if (pos >= 0) changed |= replaceAt(pos, next);
+        }
+
+        // Headers showing dropped totals go back to asking for them.
+        if (dropped) changed |= refreshHeader(month);
+        if (successorDropped) changed |= refreshHeader(successorMonth);
+
+        if (changed) post(gen);
+    }
+
+    // Same key (day, id), so only the item changes
+    private boolean replaceAt(int pos, FuelRecord r) {
+        display.set(pos, toItem(r, vehicleStyles));
+        return true;
+    }
+
+    // Inserts a record at its insertion point, opening its month's section if it is not loaded
+    private void insertRecord(int at, FuelRecord r) {
+        FuelLogItem item = toItem(r, vehicleStyles);
+        // A loaded section starts with its header, which sorts before every row of the month.
+        if (at == 0 || display.get(at - 1).yearMonth != item.yearMonth) {
+            rows.insert(at, LogKeys.headerDay(item.yearMonth), LogKeys.HEADER_ID);
+            display.add(at, header(item.yearMonth, rowsVehicleId));
+            at++;
+        }
+        rows.insert(at, r.getDateEpochDay(), r.getId());
+        display.add(at, item);
+        recordCount++;
+    }
+
+    // Removes a record, and its header when it was the last row of its month
+    private void removeRecord(int pos) {
+        int month = display.get(pos).yearMonth;
+        rows.remove(pos);
+        display.remove(pos);
+        recordCount--;
+        int h = pos - 1;
+        boolean sectionEmpty = pos == display.size() || display.get(pos).yearMonth != month;
+        if (sectionEmpty && h >= 0 && display.get(h).isHeader) {
+            rows.remove(h);
+            display.remove(h);
+        }
+    }
+
+    // Re-creates a loaded month header from the cached totals; false if the month is not loaded
+    private boolean refreshHeader(int yearMonth) {
+        int pos = rows.search(LogKeys.headerDay(yearMonth), LogKeys.HEADER_ID);
+        if (pos < 0) return false;
+        display.set(pos, header(yearMonth, rowsVehicleId));
+        return true;
+    }
+
+    private boolean inWindowFilter(FuelRecord r) {
+        return rowsVehicleId <= 0 || r.getVehicleId() == rowsVehicleId;
+    }
+
+    private boolean isStale(int gen) {
+        return gen != generation.get();
+    }
+
+    // Hands an immutable copy to the main thread (one array copy, no items are built);
+    // a newer generation wins if it got there first
+    private void post(int gen) {
+        final List<FuelLogItem> snapshot = Collections.unmodifiableList(new ArrayList<>(display));
+        mainHandler.post(() -> {
+            if (!isStale(gen)) items.setValue(snapshot);
+        });
+    }
+
+    // Item for row i of a loaded page
+    private FuelLogItem toItem(FuelColumns c, int i, VehicleStyle.Table styles) {
+        FuelLogItem item = new FuelLogItem();
+        item.recordId = c.ids[i];
+        item.vehicleId = c.vehicleIds[i];
+        item.dateIso = EpochDays.toIso(c.epochDays[i]);
+        item.yearMonth = EpochDays.yearMonth(c.epochDays[i]);
+        item.liters = c.volumeLiters[i];
+        item.costRm = c.costRm[i];
+        item.mileageKm = c.mileageKm[i];
+
+        item.hasEfficiency = c.hasInterval(i);
+        if (item.hasEfficiency) {
+            item.distanceKm = c.distanceKm[i];
+            item.rmPerKm = c.rmPerKm[i];
+            item.litersPer100Km = c.litersPer100Km[i];
+        }
+        return present(item, styles);
+    }
+
+    // Item for a record delivered by a FuelRecordChange
+    private FuelLogItem toItem(FuelRecord r, VehicleStyle.Table styles) {
+        FuelLogItem item = new FuelLogItem();
+        item.recordId = r.getId();
+        item.vehicleId = r.getVehicleId();
+        item.dateIso = r.getDateIso();
+        item.yearMonth = EpochDays.yearMonth(r.getDateEpochDay());
+        item.liters = r.getVolumeLiters();
+        item.costRm = r.getCostRm();
+        item.mileageKm = r.getMileageKm();
+
+        // Efficiency is stored with the record when it is written.
+        item.hasEfficiency = r.getDistanceKm() != null;
+        if (item.hasEfficiency) {
+            item.distanceKm = r.getDistanceKm();
+            item.rmPerKm = r.getRmPerKm();
+            item.litersPer100Km = r.getLitersPer100Km();
+        }
+        return present(item, styles);
+    }
+
+    // Copy of a published item (the adapter may still be diffing it) with another vehicle style
+    private static FuelLogItem withVehicle(FuelLogItem item, VehicleStyle style) {
+        FuelLogItem copy = new FuelLogItem();
+        copy.recordId = item.recordId;
+        copy.vehicleId = item.vehicleId;
+        copy.vehicle = style;
+        copy.yearMonth = item.yearMonth;
+        copy.dateIso = item.dateIso;
+        copy.liters = item.liters;
+        copy.costRm = item.costRm;
+        copy.mileageKm = item.mileageKm;
+        copy.hasEfficiency = item.hasEfficiency;
+        copy.distanceKm = item.distanceKm;
+        copy.rmPerKm = item.rmPerKm;
+        copy.litersPer100Km = item.litersPer100Km;
+        copy.volumeText = item.volumeText;
+        copy.costText = item.costText;
+        copy.mileageText = item.mileageText;
+        copy.sinceText = item.sinceText;
+        copy.rmPerKmText = item.rmPerKmText;
+        copy.litersPer100KmText = item.litersPer100KmText;
+        return copy;
+    }
+
+    // Fills in the vehicle style and the formatted row text, so binding only assigns them
+    private FuelLogItem present(FuelLogItem item, VehicleStyle.Table styles) {
+        item.vehicle = styles.get(item.vehicleId);
+        item.volumeText = df2.format(item.liters) + "L";
+        item.costText = "RM" + df2.format(item.costRm);
+        item.mileageText = df0.format(item.mileageKm) + "km";
+        if (item.hasEfficiency) {
+            item.sinceText = "Since last fill-up (" + df0.format(item.distanceKm) + " km)";
+            item.rmPerKmText = "RM " + df2.format(item.rmPerKm);
+            item.litersPer100KmText = df2.format(item.litersPer100Km) + " L";
+        }
+        return item;
+    }
+
+    // Header row for a month; totalsText stays null until loadSectionTotals has read the month
+    // (the cache belongs to rowsVehicleId, so a rebuild for another filter starts without totals)
+    private FuelLogItem header(int yearMonth, long vehicleId) {
+        FuelLogItem h = new FuelLogItem();
+        h.isHeader = true;
+        h.recordId = -1;
+        h.vehicleId = vehicleId;
+        h.yearMonth = yearMonth;
+        h.monthText = monthNames[yearMonth % 100 - 1] + " " + yearMonth / 100;
+        h.totalsText = vehicleId == rowsVehicleId ? sectionTotals.get(yearMonth) : null;
+        return h;
+    }
+
+    private String totalsText(MonthlyTotals t) {
+        if (t == null || t.recordCount == 0) return "No fill-ups";
+        return "RM " + df2.format(t.totalCostRm) + " · " + df2.format(t.totalLiters) + " L · "
+                + df0.format(t.sumDistanceKm) + " km";
+    }
+}
@@ -1,15 +1,34 @@
 package com.example.fuelwiselog.ui;
 
 import android.app.Application;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+
+import com.example.fuelwiselog.core.DashboardSummary;
+import com.example.fuelwiselog.core.EfficiencyStats;
+import com.example.fuelwiselog.data.DateRange;
+import com.example.fuelwiselog.data.EfficiencyAverage;
+import com.example.fuelwiselog.data.FuelCsvImporter;
+import com.example.fuelwiselog.data.FuelExporter;
 import com.example.fuelwiselog.data.FuelRecord;
 import com.example.fuelwiselog.data.FuelRepository;
+import com.example.fuelwiselog.data.MonthlyTotals;
+import com.example.fuelwiselog.data.RangeTotals;
 import com.example.fuelwiselog.data.Vehicle;
+import com.example.fuelwiselog.data.VehicleCache;
+import com.example.fuelwiselog.data.VehicleStats;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // ViewModel: Acts as a bridge between the UI (Activity) and the Data Layer (Repository).
 // It survives screen rotations and holds data so it's not lost when the view resets.
@@ -20,24 +39,125 @@ public class FuelViewModel extends AndroidViewModel {
     // LiveData: Automatically updates the UI when the database changes.
     private final LiveData<List<Vehicle>> vehicles;
 
-    // Fuel Log (needs mileage-ascending list across all vehicles)
-    private final LiveData<List<FuelRecord>> allRecordsOrderByVehicleMileageAsc;
+    // Display styles (labels, parsed colours) of the vehicles, rebuilt off the main thread per table change
+    private final MediatorLiveData<VehicleStyle.Table> vehicleStyles = new MediatorLiveData<>();
+
+    // Selected vehicle of this screen (-1 = none); its streams follow it via switchMap, so each screen
+    // keeps exactly one live query per concern however often the selection is set
+    private final MutableLiveData<Long> selectedVehicleId = new MutableLiveData<>();
+    private final LiveData<List<FuelRecord>> selectedRecords;
+    private final LiveData<Double> selectedLastMileage;
+    private final LiveData<VehicleStats> selectedStats;
+    private final LiveData<DashboardSummary> selectedSummary;
+
+    // Fuel Log: paged newest-first, created on first use by the log screen
+    private FuelLogPager logPager;
+    private final MutableLiveData<Long> logFilterVehicleId = new MutableLiveData<>(-1L);
+    private final LiveData<Integer> logCount;
+
+    // Log average card: rolling windows for one vehicle, re-pointed by setAverageVehicle()
+    static final int AVERAGE_LAST_N = 5;
+    static final int AVERAGE_LAST_DAYS = 90;
+    private final MutableLiveData<Long> averageVehicleId = new MutableLiveData<>(-1L);
+    private final LiveData<EfficiencyAverage> averageAllTime;
+    private final LiveData<EfficiencyAverage> averageLastN;
+    private final LiveData<EfficiencyAverage> averageLastDays;
+
+    // Reports: records and totals for one vehicle (-1 = all) over a date range, re-pointed by setReportRange()
+    private final MutableLiveData<ReportQuery> reportQuery = new MutableLiveData<>();
+    private final LiveData<List<FuelRecord>> reportRecords;
+    private final LiveData<RangeTotals> reportTotals;
+
+    // Monthly trend: the last TREND_MONTHS months for one vehicle (-1 = all), re-pointed by setTrendVehicle()
+    static final int TREND_MONTHS = 12;
+    private final MutableLiveData<Long> trendVehicleId = new MutableLiveData<>();
+    private final LiveData<List<MonthlyTotals>> monthlyTrend;
+
+    // CSV import: at most one running; progress is posted from the importer's threads
+    private FuelCsvImporter importer;
+    private final MutableLiveData<FuelCsvImporter.Status> importStatus = new MutableLiveData<>(null);
+
+    // Dashboard efficiency spread of the selected vehicle, null until loaded or without fill-ups.
+    // Re-read only when that vehicle's interval totals move, not on every vehicle_stats emission.
+    private final MediatorLiveData<EfficiencyStats> selectedEfficiency = new MediatorLiveData<>();
+    // Totals row the spread was last requested for (main thread)
+    private VehicleStats efficiencyRequestedFor;
+    // Bumped per request; the analytics thread skips and this screen drops superseded ones
+    private final AtomicInteger efficiencyRequest = new AtomicInteger();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Export: result of the last export, null until one finishes
+    private final MutableLiveData<FuelExporter.Result> exportResult = new MutableLiveData<>(null);
 
     public FuelViewModel(@NonNull Application application) {
         super(application);
-        // Repository owns all data operations.
-        repository = new FuelRepository(application);
+        // Repository owns all data operations; it is shared by every screen's ViewModel.
+        repository = FuelRepository.getInstance(application);
 
         // Cache LiveData streams used by UI screens.
         vehicles = repository.getVehicles();
-        allRecordsOrderByVehicleMileageAsc = repository.getAllRecordsOrderByVehicleMileageAsc();
+        logCount = Transformations.switchMap(logFilterVehicleId, repository::countRecords);
+        vehicleStyles.addSource(repository.getVehicleSnapshots(), snapshot ->
+                VehicleStyle.BUILD_EXECUTOR.execute(() -> vehicleStyles.postValue(VehicleStyle.Table.of(snapshot))));
+
+        selectedRecords = Transformations.switchMap(selectedVehicleId, id ->
+                id > 0 ? repository.getRecordsByVehicleMileageAsc(id) : new MutableLiveData<>(null));
+        selectedLastMileage = Transformations.switchMap(selectedVehicleId, id ->
+                id > 0 ? repository.getLastMileage(id) : new MutableLiveData<>(null));
+        selectedStats = Transformations.switchMap(selectedVehicleId, id ->
+                id > 0 ? repository.getVehicleStats(id) : new MutableLiveData<>(null));
+        selectedSummary = Transformations.map(selectedStats, FuelViewModel::computeSummary);
+        selectedEfficiency.addSource(selectedStats, this::requestEfficiency);
+
+        averageAllTime = Transformations.switchMap(averageVehicleId, id ->
+                id > 0 ? repository.getAverageAllTime(id) : new MutableLiveData<>(null));
+        averageLastN = Transformations.switchMap(averageVehicleId, id ->
+                id > 0 ? repository.getAverageLastN(id, AVERAGE_LAST_N) : new MutableLiveData<>(null));
+        averageLastDays = Transformations.switchMap(averageVehicleId, id ->
+                id > 0 ? repository.getAverageLastDays(id, AVERAGE_LAST_DAYS) : new MutableLiveData<>(null));
+
+        reportRecords = Transformations.switchMap(reportQuery, q ->
+                repository.getRecordsInRange(q.vehicleId, q.range));
+        reportTotals = Transformations.switchMap(reportQuery, q ->
+                repository.getTotalsInRange(q.vehicleId, q.range));
+        monthlyTrend = Transformations.switchMap(trendVehicleId, id ->
+                repository.getMonthlyTrend(id, TREND_MONTHS));
     }
 
-    // ---------------- Vehicles ----------------
+    @Override
+    protected void onCleared() {
+        if (logPager != null) logPager.close();
+        if (importer != null) importer.cancel();
+    }
 
     // -----------------------------
     // Vehicles
     // -----------------------------
+    // The shared vehicle snapshot: the list plus O(1) lookup by id
+    public LiveData<VehicleCache.Snapshot> getVehicleSnapshots() {
+        return repository.getVehicleSnapshots();
+    }
+
+    // Vehicle by id from the latest snapshot, without a query; null if unknown
+    @Nullable
+    public Vehicle findVehicle(long vehicleId) {
+        return repository.findVehicle(vehicleId);
+    }
+
+    // Styles for every vehicle, for lists that bind many rows
+    LiveData<VehicleStyle.Table> getVehicleStyles() {
+        return vehicleStyles;
+    }
+
+    // Style of one vehicle from the last table built on VehicleStyle.BUILD_EXECUTOR; null if unknown or
+    // before the first table arrives. Screens observe getVehicleStyles() and look up again when it changes.
+    @Nullable
+    VehicleStyle findVehicleStyle(long vehicleId) {
+        VehicleStyle.Table table = vehicleStyles.getValue();
+        VehicleStyle s = table == null ? VehicleStyle.UNKNOWN : table.get(vehicleId);
+        return s == VehicleStyle.UNKNOWN ? null : s;
+    }
+
     // Returns the list of vehicles for the UI to observe
     public LiveData<List<Vehicle>> getVehicles() {
         return vehicles;
@@ -77,21 +197,226 @@ public class FuelViewModel extends AndroidViewModel {
         repository.deleteFuelRecordById(id);
     }
 
-    // For Main/Home summary
-    // Fetches history for one vehicle, sorted by mileage for efficiency calculation
-    public LiveData<List<FuelRecord>> getRecordsByVehicleMileageAsc(long vehicleId) {
-        // Used by dashboard summaries and efficiency calculations.
-        return repository.getRecordsByVehicleMileageAsc(vehicleId);
+    // -----------------------------
+    // Selected vehicle
+    // -----------------------------
+    // Re-points the selected-vehicle streams; setting the same id again is a no-op
+    public void setSelectedVehicle(long vehicleId) {
+        if (!Long.valueOf(vehicleId).equals(selectedVehicleId.getValue())) {
+            selectedVehicleId.setValue(vehicleId);
+        }
+    }
+
+    // History of the selected vehicle, sorted by mileage
+    public LiveData<List<FuelRecord>> getSelectedVehicleRecords() {
+        return selectedRecords;
+    }
+
+    // Highest mileage recorded for the selected vehicle (AddRecord validation: a new entry must be above it)
+    public LiveData<Double> getSelectedLastMileage() {
+        return selectedLastMileage;
+    }
+
+    // Running totals of the selected vehicle (one row lookup); null without fill-ups
+    public LiveData<VehicleStats> getSelectedVehicleStats() {
+        return selectedStats;
+    }
+
+    // Dashboard figures derived from those totals; null until there is enough history
+    public LiveData<DashboardSummary> getSelectedSummary() {
+        return selectedSummary;
+    }
+
+    // Derives the dashboard statistics from the vehicle's running totals (no pass over the history)
+    private static DashboardSummary computeSummary(VehicleStats stats) {
+        if (stats == null || stats.getMinMileageKm() == null || stats.getMaxMileageKm() == null) return null;
+        return DashboardSummary.from(stats.getRecordCount(), stats.getMinMileageKm(), stats.getMaxMileageKm(),
+                stats.getTotalCostRm(), stats.getEfficiencyCount(), stats.getSumRmPerKm(),
+                stats.getSumLitersPer100Km());
+    }
+
+    private void requestEfficiency(VehicleStats stats) {
+        if (stats != null && sameIntervals(stats, efficiencyRequestedFor)) return;
+        boolean sameVehicle = stats != null && efficiencyRequestedFor != null
+                && stats.getVehicleId() == efficiencyRequestedFor.getVehicleId();
+        efficiencyRequestedFor = stats;
+        int request = efficiencyRequest.incrementAndGet();
+        // Never show the previous vehicle's spread while the new one loads
+        if (!sameVehicle) selectedEfficiency.setValue(null);
+        if (stats == null) return;
+        repository.loadEfficiencyStats(stats.getVehicleId(), () -> efficiencyRequest.get() == request,
+                loaded -> mainHandler.post(() -> {
+                    if (efficiencyRequest.get() == request) selectedEfficiency.setValue(loaded);
+                }));
+    }
+
+    // The distribution only depends on the fill-ups that have an interval
+    private static boolean sameIntervals(VehicleStats a, VehicleStats b) {
+        return b != null
+                && a.getVehicleId() == b.getVehicleId()
+                && a.getEfficiencyCount() == b.getEfficiencyCount()
+                && a.getSumRmPerKm() == b.getSumRmPerKm()
+                && a.getSumLitersPer100Km() == b.getSumLitersPer100Km();
+    }
+
+    public LiveData<EfficiencyStats> getSelectedEfficiency() {
+        return selectedEfficiency;
+    }
+
+    // -----------------------------
+    // Fuel Log (paged)
+    // -----------------------------
+    // Loaded pages of the log, newest first
+    public LiveData<List<FuelLogItem>> getLogItems() {
+        return pager().getItems();
+    }
+
+    // Number of records matching the current log filter
+    public LiveData<Integer> getLogCount() {
+        return logCount;
+    }
+
+    // Changes the log filter (-1 = all vehicles) and restarts paging from the newest record
+    public void setLogFilter(long vehicleId) {
+        if (!Long.valueOf(vehicleId).equals(logFilterVehicleId.getValue())) {
+            logFilterVehicleId.setValue(vehicleId);
+        }
+        pager().setFilter(vehicleId);
     }
 
-    public LiveData<List<FuelRecord>> getAllRecordsOrderByVehicleMileageAsc() {
-        return allRecordsOrderByVehicleMileageAsc;
+    // Keeps vehicle names/colours in the log rows up to date
+    public void setLogVehicles(VehicleCache.Snapshot vehicles) {
+        pager().setVehicles(vehicles);
     }
 
-    // For AddRecord validation (per vehicle)
-    // Gets the highest mileage recorded to validate new entries (must be > last)
-    public LiveData<Double> getLastMileage(long vehicleId) {
-        // Used for AddRecord validation.
-        return repository.getLastMileage(vehicleId);
+    // Points the average card at a vehicle (-1 hides it)
+    public void setAverageVehicle(long vehicleId) {
+        if (!Long.valueOf(vehicleId).equals(averageVehicleId.getValue())) {
+            averageVehicleId.setValue(vehicleId);
+        }
+    }
+
+    public LiveData<EfficiencyAverage> getAverageAllTime() {
+        return averageAllTime;
+    }
+
+    public LiveData<EfficiencyAverage> getAverageLastN() {
+        return averageLastN;
+    }
+
+    public LiveData<EfficiencyAverage> getAverageLastDays() {
+        return averageLastDays;
+    }
+
+    // -----------------------------
+    // Reports (date ranges)
+    // -----------------------------
+    // Points the report streams at a vehicle (-1 = all) and range, e.g. DateRange.thisMonth()
+    public void setReportRange(long vehicleId, DateRange range) {
+        ReportQuery q = new ReportQuery(vehicleId, range);
+        if (!q.equals(reportQuery.getValue())) reportQuery.setValue(q);
+    }
+
+    // Records inside the range, oldest first
+    public LiveData<List<FuelRecord>> getReportRecords() {
+        return reportRecords;
+    }
+
+    public LiveData<RangeTotals> getReportTotals() {
+        return reportTotals;
+    }
+
+    // Points the monthly trend at a vehicle (-1 = whole fleet)
+    public void setTrendVehicle(long vehicleId) {
+        if (!Long.valueOf(vehicleId).equals(trendVehicleId.getValue())) {
+            trendVehicleId.setValue(vehicleId);
+        }
+    }
+
+    // One bucket per month with fill-ups, oldest first
+    public LiveData<List<MonthlyTotals>> getMonthlyTrend() {
+        return monthlyTrend;
+    }
+
+    // Requests the next page; called as the list nears its end
+    public void loadMoreLog() {
+        pager().loadMore();
+    }
+
+    // Loads a month header's totals from the rollup; called when the header is first shown
+    public void loadLogSectionTotals(int yearMonth) {
+        pager().loadSectionTotals(yearMonth);
+    }
+
+    private FuelLogPager pager() {
+        if (logPager == null) logPager = new FuelLogPager(repository);
+        return logPager;
+    }
+
+    // -----------------------------
+    // CSV import
+    // -----------------------------
+    // Starts importing the picked file; ignored while another import is running
+    public void startImport(Uri uri) {
+        FuelCsvImporter.Status current = importStatus.getValue();
+        if (importer != null && (current == null || !current.finished)) return;
+        importStatus.setValue(null);
+        importer = repository.importCsv(uri, importStatus::postValue);
+    }
+
+    // Stops after the current chunk; rows already imported are kept
+    public void cancelImport() {
+        if (importer != null) importer.cancel();
+    }
+
+    // Latest progress (null before the first chunk); finished = true once done
+    public LiveData<FuelCsvImporter.Status> getImportStatus() {
+        return importStatus;
+    }
+
+    // Clears a finished status once the summary has been shown
+    public void clearImportStatus() {
+        importer = null;
+        importStatus.setValue(null);
+    }
+
+    // -----------------------------
+    // Export
+    // -----------------------------
+    // Writes the whole history to the picked document in the background
+    public void export(Uri uri, FuelExporter.Format format) {
+        repository.export(uri, format, exportResult::postValue);
+    }
+
+    public LiveData<FuelExporter.Result> getExportResult() {
+        return exportResult;
+    }
+
+    // Clears the result once it has been shown
+    public void clearExportResult() {
+        exportResult.setValue(null);
+    }
+
+    // Key of the report streams
+    private static final class ReportQuery {
+        final long vehicleId;
+        final DateRange range;
+
+        ReportQuery(long vehicleId, DateRange range) {
+            this.vehicleId = vehicleId;
+            this.range = range;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ReportQuery)) return false;
+            ReportQuery q = (ReportQuery) o;
+            return vehicleId == q.vehicleId && range.equals(q.range);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(vehicleId) + range.hashCode();
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,25 +1,30 @@
 package com.example.fuelwiselog.ui;
 
 import android.content.Intent;
-import android.graphics.Color;
+import android.net.Uri;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.ArrayAdapter;
 import android.widget.Filter;
+import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
-import androidx.lifecycle.LiveData;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.example.fuelwiselog.R;
-import com.example.fuelwiselog.data.FuelRecord;
+import com.example.fuelwiselog.core.DashboardSummary;
+import com.example.fuelwiselog.core.EfficiencyStats;
+import com.example.fuelwiselog.data.FuelCsvImporter;
+import com.example.fuelwiselog.data.FuelExporter;
 import com.example.fuelwiselog.data.Vehicle;
 import com.example.fuelwiselog.databinding.ActivityMainBinding;
 import com.example.fuelwiselog.util.Prefs;
 
 import java.text.DecimalFormat;
-import java.util.ArrayList;
 import java.util.List;
 
 // The Dashboard screen: Entry point of the application.
@@ -32,7 +37,14 @@ public class MainActivity extends AppCompatActivity {
     private final DecimalFormat df2 = new DecimalFormat("0.00");
 
     private long selectedVehicleId = -1L;
-    private LiveData<List<FuelRecord>> recordsLiveData;
+
+    // CSV import: file picker and the progress dialog shown while it runs
+    private ActivityResultLauncher<String[]> importPicker;
+    private AlertDialog importDialog;
+
+    // Export: one document picker per format (the MIME type is fixed per launcher)
+    private ActivityResultLauncher<String> exportCsvPicker;
+    private ActivityResultLauncher<String> exportJsonPicker;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -58,14 +70,36 @@ public class MainActivity extends AppCompatActivity {
         binding.cardFuelLog.setOnClickListener(v ->
                 startActivity(new Intent(this, FuelLogActivity.class)));
 
-        // Observe vehicle list to handle the "Current Vehicle" display
-        vm.getVehicles().observe(this, vehicles -> {
+        // CSV import runs in the background; the dialog follows its progress.
+        importPicker = registerForActivityResult(new ActivityResultContracts.OpenDocument(), uri -> {
+            if (uri != null) startImport(uri);
+        });
+        binding.btnImport.setOnClickListener(v ->
+                importPicker.launch(new String[]{"text/csv", "text/comma-separated-values", "text/plain"}));
+        vm.getImportStatus().observe(this, this::renderImportStatus);
+
+        exportCsvPicker = registerForActivityResult(new ActivityResultContracts.CreateDocument("text/csv"), uri -> {
+            if (uri != null) vm.export(uri, FuelExporter.Format.CSV);
+        });
+        exportJsonPicker = registerForActivityResult(new ActivityResultContracts.CreateDocument("application/json"), uri -> {
+            if (uri != null) vm.export(uri, FuelExporter.Format.JSON);
+        });
+        binding.btnExport.setOnClickListener(v -> showExportFormatDialog());
+        vm.getExportResult().observe(this, result -> {
+            if (result == null) return;
+            String msg = result.error != null ? result.error : "Exported " + result.rows + " records";
+            Toast.makeText(this, msg, Toast.LENGTH_LONG).show();
+            vm.clearExportResult();
+        });
+
+        // Observe the vehicle snapshot to handle the "Current Vehicle" display; the selection is checked
+        // with the snapshot's id lookup, the same one every screen uses
+        vm.getVehicleSnapshots().observe(this, snapshot -> {
             // Ensure we have a selected vehicle if any exist.
             selectedVehicleId = Prefs.getSelectedVehicleId(this);
-            if (vehicles != null && !vehicles.isEmpty()) {
-                boolean exists = false;
-                for (Vehicle vv : vehicles) if (vv.getId() == selectedVehicleId) exists = true;
-                if (!exists) {
+            List<Vehicle> vehicles = snapshot.list();
+            if (!vehicles.isEmpty()) {
+                if (snapshot.get(selectedVehicleId) == null) {
                     selectedVehicleId = vehicles.get(0).getId();
                     Prefs.setSelectedVehicleId(this, selectedVehicleId);
                 }
@@ -74,20 +108,97 @@ public class MainActivity extends AppCompatActivity {
                 Prefs.setSelectedVehicleId(this, -1L);
             }
 
-            renderSelectedVehicleCard(vehicles);
+            renderSelectedVehicleCard();
             updateActionEnabledState();
-            observeSelectedVehicleRecords(); // updates summary + count
+            vm.setSelectedVehicle(selectedVehicleId); // re-points summary + count
+        });
+
+        // Vehicle styles are built off the main thread; the card is drawn again once they arrive or change
+        vm.getVehicleStyles().observe(this, styles -> renderSelectedVehicleCard());
+
+        // Selected vehicle's running totals: record count
+        vm.getSelectedVehicleStats().observe(this, stats -> {
+            int count = stats == null ? 0 : stats.getRecordCount();
+            binding.tvRecordCount.setText(String.valueOf(count));
+        });
+        vm.getSelectedSummary().observe(this, this::renderSummary);
+
+        // Median / p90 line of the summary card; the ViewModel reloads it when the vehicle's intervals change
+        vm.getSelectedEfficiency().observe(this, stats -> renderEfficiencySpread());
+
+        // Selection changes made on other screens (e.g. VehicleManager) arrive here, no re-read on resume
+        Prefs.selectedVehicleId(this).observe(this, id -> {
+            if (id == selectedVehicleId) return;
+            selectedVehicleId = id;
+            renderSelectedVehicleCard();
+            updateActionEnabledState();
+            vm.setSelectedVehicle(selectedVehicleId);
         });
     }
 
     @Override
-    protected void onResume() {
-        super.onResume();
-        // Refresh selection after coming back from VehicleManager
-        selectedVehicleId = Prefs.getSelectedVehicleId(this);
-        renderSelectedVehicleCard(vm.getVehicles().getValue());
-        updateActionEnabledState();
-        observeSelectedVehicleRecords();
+    protected void onDestroy() {
+        // The import keeps running in the ViewModel; a recreated activity shows the dialog again.
+        if (importDialog != null) importDialog.dismiss();
+        super.onDestroy();
+    }
+
+    // Lets the user pick CSV or JSON, then where to save the file
+    private void showExportFormatDialog() {
+        String[] formats = {"CSV", "JSON"};
+        new AlertDialog.Builder(this)
+                .setTitle("Export records")
+                .setItems(formats, (d, which) -> {
+                    if (which == 0) exportCsvPicker.launch("fuelwiselog.csv");
+                    else exportJsonPicker.launch("fuelwiselog.json");
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void startImport(Uri uri) {
+        vm.startImport(uri);
+        showImportProgress();
+    }
+
+    private void showImportProgress() {
+        if (importDialog != null) return;
+        importDialog = new AlertDialog.Builder(this)
+                .setTitle("Importing records")
+                .setMessage("Reading file...")
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (d, which) -> vm.cancelImport())
+                .show();
+    }
+
+    // Shows progress while the import runs (also after rotation) and a summary when it ends
+    private void renderImportStatus(FuelCsvImporter.Status status) {
+        if (status == null) return;
+
+        if (!status.finished) {
+            showImportProgress();
+            importDialog.setMessage(status.imported + " imported, " + status.skipped + " skipped");
+            return;
+        }
+
+        if (importDialog != null) {
+            importDialog.dismiss();
+            importDialog = null;
+        }
+
+        StringBuilder msg = new StringBuilder();
+        if (status.error != null) msg.append(status.error).append("\n\n");
+        msg.append("Imported: ").append(status.imported)
+                .append("\nSkipped: ").append(status.skipped)
+                .append("\nNew vehicles: ").append(status.vehiclesCreated);
+        for (String p : status.problems) msg.append("\n• ").append(p);
+
+        new AlertDialog.Builder(this)
+                .setTitle(status.cancelled ? "Import cancelled" : "Import finished")
+                .setMessage(msg.toString())
+                .setPositiveButton("OK", null)
+                .show();
+        vm.clearImportStatus();
     }
 
     // Configures the dropdown to switch between Light, Dark, and System themes
@@ -153,17 +264,9 @@ public class MainActivity extends AppCompatActivity {
     }
 
     // Updates the UI with the selected vehicle's details (Name, Icon, Color)
-    private void renderSelectedVehicleCard(List<Vehicle> vehicles) {
-        // Resolve the selected vehicle from the list.
-        Vehicle sel = null;
-        if (vehicles != null) {
-            for (Vehicle v : vehicles) {
-                if (v.getId() == selectedVehicleId) {
-                    sel = v;
-                    break;
-                }
-            }
-        }
+    private void renderSelectedVehicleCard() {
+        // Resolve the selected vehicle from the prepared vehicle styles.
+        VehicleStyle sel = vm.findVehicleStyle(selectedVehicleId);
 
         if (sel == null) {
             // Show empty state if selection is missing.
@@ -176,93 +279,40 @@ public class MainActivity extends AppCompatActivity {
         binding.cardNoVehicle.setVisibility(View.GONE);
         binding.cardCurrentVehicle.setVisibility(View.VISIBLE);
 
-        // Bind selected vehicle details.
-        binding.tvVehicleName.setText(sel.getName());
-        binding.tvVehicleType.setText(sel.getType());
-        binding.tvCurrentVehicleIcon.setText(VehicleEmojiMapper.getEmoji(sel.getType()));
-        try {
-            binding.cardVehicleColor.setCardBackgroundColor(Color.parseColor(sel.getColorHex()));
-        } catch (Exception ignored) {}
-    }
-
-    // Watches the database for changes to the selected vehicle's records to update the summary card
-    private void observeSelectedVehicleRecords() {
-        if (selectedVehicleId < 0) return;
-
-        // Swap observers when selection changes.
-        if (recordsLiveData != null) {
-            recordsLiveData.removeObservers(this);
-        }
-        recordsLiveData = vm.getRecordsByVehicleMileageAsc(selectedVehicleId);
-        recordsLiveData.observe(this, records -> {
-            // Update summary and record count.
-            int count = records == null ? 0 : records.size();
-            binding.tvRecordCount.setText(String.valueOf(count));
-
-            HomeSummary summary = computeSummary(records);
-            if (summary == null) {
-                binding.cardSummary.setVisibility(View.GONE);
-            } else {
-                binding.cardSummary.setVisibility(View.VISIBLE);
-                binding.tvAvgRmPerKm.setText("RM " + df2.format(summary.avgRmPerKm));
-                binding.tvAvgLPer100.setText(df2.format(summary.avgLPer100) + "L");
-                binding.tvTotalDistance.setText("Total Distance: " + df2.format(summary.totalDistanceKm) + " km");
-                binding.tvTotalCost.setText("Total Cost: RM " + df2.format(summary.totalCostRm));
-            }
-        });
+        // Bind selected vehicle details (colour already parsed in its VehicleStyle).
+        binding.tvVehicleName.setText(sel.name);
+        binding.tvVehicleType.setText(sel.type);
+        binding.tvCurrentVehicleIcon.setText(sel.icon);
+        binding.cardVehicleColor.setCardBackgroundColor(sel.color);
+        // The card may have been hidden while the selection was missing.
+        renderSummary(vm.getSelectedSummary().getValue());
     }
 
-    // Calculates total statistics and average efficiency based on the history list
-    private HomeSummary computeSummary(List<FuelRecord> records) {
-        if (records == null || records.size() < 2) return null;
-
-        // Records are already mileage ASC from DAO.
-        double firstMileage = records.get(0).getMileageKm();
-        double lastMileage = records.get(records.size() - 1).getMileageKm();
-        double totalDistance = lastMileage - firstMileage;
-        if (totalDistance <= 0) return null;
-
-        double totalCost = 0;
-        for (FuelRecord r : records) totalCost += r.getCostRm();
-
-        List<Double> rmPerKm = new ArrayList<>();
-        List<Double> lPer100 = new ArrayList<>();
-
-        for (int i = 1; i < records.size(); i++) {
-            FuelRecord prev = records.get(i - 1);
-            FuelRecord cur = records.get(i);
-            double dist = cur.getMileageKm() - prev.getMileageKm();
-            if (dist <= 0) continue;
-
-            rmPerKm.add(cur.getCostRm() / dist);
-            lPer100.add((cur.getVolumeLiters() / dist) * 100.0);
+    // Summary card for the selected vehicle (hidden until there is enough history)
+    private void renderSummary(DashboardSummary summary) {
+        if (summary == null || vm.findVehicle(selectedVehicleId) == null) {
+            binding.cardSummary.setVisibility(View.GONE);
+        } else {
+            binding.cardSummary.setVisibility(View.VISIBLE);
+            binding.tvAvgRmPerKm.setText("RM " + df2.format(summary.avgRmPerKm));
+            binding.tvAvgLPer100.setText(df2.format(summary.avgLitersPer100Km) + "L");
+            binding.tvTotalDistance.setText("Total Distance: " + df2.format(summary.totalDistanceKm) + " km");
+            binding.tvTotalCost.setText("Total Cost: RM " + df2.format(summary.totalCostRm));
         }
-
-        if (rmPerKm.isEmpty()) return null;
-
-        double avgRm = 0;
-        double avgL = 0;
-        for (double v : rmPerKm) avgRm += v;
-        for (double v : lPer100) avgL += v;
-
-        avgRm /= rmPerKm.size();
-        avgL /= lPer100.size();
-
-        return new HomeSummary(totalDistance, totalCost, avgRm, avgL);
+        renderEfficiencySpread();
     }
 
-    // Simple data holder for the dashboard statistics
-    private static class HomeSummary {
-        final double totalDistanceKm;
-        final double totalCostRm;
-        final double avgRmPerKm;
-        final double avgLPer100;
-
-        HomeSummary(double d, double c, double rm, double l) {
-            totalDistanceKm = d;
-            totalCostRm = c;
-            avgRmPerKm = rm;
-            avgLPer100 = l;
+    // Median and p90 of the selected vehicle's RM/km and L/100km, hidden until they are known
+    private void renderEfficiencySpread() {
+        EfficiencyStats stats = vm.getSelectedEfficiency().getValue();
+        if (stats == null || stats.count() == 0) {
+            binding.tvEfficiencySpread.setVisibility(View.GONE);
+            return;
         }
+        binding.tvEfficiencySpread.setVisibility(View.VISIBLE);
+        binding.tvEfficiencySpread.setText("Median RM " + df2.format(stats.rmPerKm.median()) + "/km"
+                + " (p90 " + df2.format(stats.rmPerKm.p90()) + ")"
+                + " · " + df2.format(stats.litersPer100Km.median()) + "L/100km"
+                + " (p90 " + df2.format(stats.litersPer100Km.p90()) + ")");
     }
-}
\ No newline at end of file
+}
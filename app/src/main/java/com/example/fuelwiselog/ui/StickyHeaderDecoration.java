@@ -0,0 +1,69 @@
+package com.example.fuelwiselog.ui;
+
+import android.graphics.Canvas;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+// Pins the month header of the topmost visible row over the fuel log, and lets the next month's
+// header push it up as it arrives. The pinned copy is a detached header holder bound by the adapter,
+// so it shows (and lazily requests) the same totals as the header in the list.
+final class StickyHeaderDecoration extends RecyclerView.ItemDecoration {
+
+    private final FuelLogAdapter adapter;
+    private FuelLogAdapter.HeaderVH pinned;
+    // Header item and width the pinned view was last bound and measured for
+    private FuelLogItem pinnedItem;
+    private int pinnedWidth;
+
+    StickyHeaderDecoration(FuelLogAdapter adapter) {
+        this.adapter = adapter;
+    }
+
+    @Override
+    public void onDrawOver(@NonNull Canvas c, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        View first = parent.getChildAt(0);
+        if (first == null) return;
+        int position = parent.getChildAdapterPosition(first);
+        if (position == RecyclerView.NO_POSITION) return;
+        int headerPosition = adapter.sectionHeaderPosition(position);
+        if (headerPosition == RecyclerView.NO_POSITION) return;
+
+        // The section's own header is still fully in place: nothing to pin.
+        int top = parent.getPaddingTop();
+        if (position == headerPosition && first.getTop() >= top) return;
+
+        View header = bindPinned(parent, adapter.itemAt(headerPosition));
+
+        // The next header on screen pushes the pinned one up once they touch.
+        for (int i = 1; i < parent.getChildCount(); i++) {
+            View child = parent.getChildAt(i);
+            int p = parent.getChildAdapterPosition(child);
+            if (p == RecyclerView.NO_POSITION || p <= headerPosition || !adapter.isHeader(p)) continue;
+            top = Math.min(top, child.getTop() - header.getHeight());
+            break;
+        }
+
+        c.save();
+        c.translate(parent.getPaddingLeft(), top);
+        header.draw(c);
+        c.restore();
+    }
+
+    // Rebinds and re-measures only when the header item (month or totals) or the width changed
+    private View bindPinned(RecyclerView parent, FuelLogItem item) {
+        if (pinned == null) pinned = adapter.createHeaderHolder(parent);
+        View view = pinned.itemView;
+        int width = parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+        if (item != pinnedItem || width != pinnedWidth) {
+            pinnedItem = item;
+            pinnedWidth = width;
+            pinned.bind(item);
+            view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+            view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        }
+        return view;
+    }
+}
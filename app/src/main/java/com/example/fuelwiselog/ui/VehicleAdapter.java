@@ -5,6 +5,7 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
@@ -12,8 +13,12 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.fuelwiselog.data.Vehicle;
 import com.example.fuelwiselog.databinding.ItemVehicleBinding;
 
-// Adapter for the "Manage Vehicles" list; handles displaying, selecting, editing, and deleting vehicles
-public class VehicleAdapter extends ListAdapter<Vehicle, VehicleAdapter.VH> {
+import java.util.List;
+
+// Adapter for the "Manage Vehicles" list; handles displaying, selecting, editing, and deleting vehicles.
+// Rows are VehicleStyles, so labels and colours are prepared before binding. Selection moves and
+// renames are posted as payloads, so only the badge or the vehicle details of a row are rebound.
+public class VehicleAdapter extends ListAdapter<VehicleStyle, VehicleAdapter.VH> {
 
     // Callbacks to send user actions (clicks) back to the Activity
     public interface Actions {
@@ -22,19 +27,34 @@ public class VehicleAdapter extends ListAdapter<Vehicle, VehicleAdapter.VH> {
         void onDelete(Vehicle v);
     }
 
+    // Change payloads (bit flags)
+    static final int PAYLOAD_SELECTION = 1;
+    static final int PAYLOAD_PRESENTATION = 1 << 1;
+
+    private static final int ACTIVE_STROKE = Color.parseColor("#B67CFF");
+
     private final Actions actions;
     private long selectedVehicleId = -1;
 
     public VehicleAdapter(Actions actions) {
-        super(DIFF);
+        super(AdapterDiffing.config(DIFF));
         this.actions = actions;
     }
 
-    // Updates which vehicle is currently "Active" and refreshes the list to show the purple highlight
+    // Updates which vehicle is currently "Active"; only the previous and the new row are rebound
     public void setSelectedVehicleId(long id) {
-        // Refresh selection state across visible rows.
+        if (id == selectedVehicleId) return;
+        int previous = positionOf(selectedVehicleId);
         selectedVehicleId = id;
-        notifyDataSetChanged();
+        if (previous != RecyclerView.NO_POSITION) notifyItemChanged(previous, PAYLOAD_SELECTION);
+        int current = positionOf(id);
+        if (current != RecyclerView.NO_POSITION) notifyItemChanged(current, PAYLOAD_SELECTION);
+    }
+
+    private int positionOf(long vehicleId) {
+        List<VehicleStyle> list = getCurrentList();
+        for (int i = 0; i < list.size(); i++) if (list.get(i).vehicle.getId() == vehicleId) return i;
+        return RecyclerView.NO_POSITION;
     }
 
     @NonNull
@@ -53,6 +73,18 @@ public class VehicleAdapter extends ListAdapter<Vehicle, VehicleAdapter.VH> {
         holder.bind(getItem(position));
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull VH holder, int position, @NonNull List<Object> payloads) {
+        int flags = AdapterDiffing.flags(payloads);
+        if (flags == 0) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        VehicleStyle style = getItem(position);
+        if ((flags & PAYLOAD_PRESENTATION) != 0) holder.bindPresentation(style);
+        if ((flags & PAYLOAD_SELECTION) != 0) holder.bindSelection(style);
+    }
+
     class VH extends RecyclerView.ViewHolder {
         private final ItemVehicleBinding b;
 
@@ -61,57 +93,60 @@ public class VehicleAdapter extends ListAdapter<Vehicle, VehicleAdapter.VH> {
             this.b = binding;
         }
 
-        void bind(Vehicle v) {
+        void bind(VehicleStyle style) {
+            bindPresentation(style);
+            bindSelection(style);
+        }
+
+        // Vehicle details and the actions, which capture the (possibly renamed) vehicle
+        void bindPresentation(VehicleStyle style) {
+            Vehicle v = style.vehicle;
             // Bind base vehicle info.
-            b.tvName.setText(v.getName());
-            b.tvType.setText(v.getType());
-            b.tvVehicleIcon.setText(VehicleEmojiMapper.getEmoji(v.getType()));
+            b.tvName.setText(style.name);
+            b.tvType.setText(style.type);
+            b.tvVehicleIcon.setText(style.icon);
 
             // Show plate only when provided; otherwise hide the text view to save space.
-            if (v.getPlateNumber() != null && !v.getPlateNumber().trim().isEmpty()) {
+            if (style.hasPlate) {
                 b.tvPlate.setVisibility(android.view.View.VISIBLE);
                 b.tvPlate.setText(v.getPlateNumber());
             } else {
                 b.tvPlate.setVisibility(android.view.View.GONE);
             }
 
-            try {
-                b.cardColor.setCardBackgroundColor(Color.parseColor(v.getColorHex()));
-            } catch (Exception e) {
-                b.cardColor.setCardBackgroundColor(Color.LTGRAY);
-            }
-
-            // Visual Logic: If this is the selected vehicle, show the "Active" badge and purple border.
-            boolean isActive = v.getId() == selectedVehicleId;
-            b.tvActive.setVisibility(isActive ? android.view.View.VISIBLE : android.view.View.GONE);
-            b.cardOuter.setStrokeColor(isActive ? Color.parseColor("#B67CFF") : Color.TRANSPARENT);
+            b.cardColor.setCardBackgroundColor(style.color);
 
             // Delegate actions to the host screen.
             b.btnEdit.setOnClickListener(view -> actions.onEdit(v));
             b.btnSelect.setOnClickListener(view -> actions.onSelect(v));
             b.btnDelete.setOnClickListener(view -> actions.onDelete(v));
         }
+
+        void bindSelection(VehicleStyle style) {
+            // Visual Logic: If this is the selected vehicle, show the "Active" badge and purple border.
+            boolean isActive = style.vehicle.getId() == selectedVehicleId;
+            b.tvActive.setVisibility(isActive ? android.view.View.VISIBLE : android.view.View.GONE);
+            b.cardOuter.setStrokeColor(isActive ? ACTIVE_STROKE : Color.TRANSPARENT);
+        }
     }
 
     // DiffUtil: Optimizes list performance by calculating exactly which rows changed
-    private static final DiffUtil.ItemCallback<Vehicle> DIFF = new DiffUtil.ItemCallback<Vehicle>() {
+    private static final DiffUtil.ItemCallback<VehicleStyle> DIFF = new DiffUtil.ItemCallback<VehicleStyle>() {
         @Override
-        public boolean areItemsTheSame(@NonNull Vehicle oldItem, @NonNull Vehicle newItem) {
-            return oldItem.getId() == newItem.getId();
+        public boolean areItemsTheSame(@NonNull VehicleStyle oldItem, @NonNull VehicleStyle newItem) {
+            return oldItem.vehicle.getId() == newItem.vehicle.getId();
         }
 
         @Override
-        public boolean areContentsTheSame(@NonNull Vehicle oldItem, @NonNull Vehicle newItem) {
-            return oldItem.getName().equals(newItem.getName())
-                    && oldItem.getType().equals(newItem.getType())
-                    && safeEq(oldItem.getPlateNumber(), newItem.getPlateNumber())
-                    && safeEq(oldItem.getColorHex(), newItem.getColorHex());
+        public boolean areContentsTheSame(@NonNull VehicleStyle oldItem, @NonNull VehicleStyle newItem) {
+            return oldItem.sameContent(newItem);
         }
 
-        private boolean safeEq(String a, String b) {
-            if (a == null && b == null) return true;
-            if (a == null) return false;
-            return a.equals(b);
+        // Same vehicle with new details: selection is adapter state, so it never changes here
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull VehicleStyle oldItem, @NonNull VehicleStyle newItem) {
+            return PAYLOAD_PRESENTATION;
         }
     };
 }
\ No newline at end of file
@@ -18,7 +18,6 @@ import com.example.fuelwiselog.databinding.ActivityVehicleManagerBinding;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.color.MaterialColors;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -58,14 +57,15 @@ public class VehicleManagerActivity extends AppCompatActivity {
         binding.btnSaveVehicle.setOnClickListener(v -> onSaveVehicle());
 
         // Observe database changes: updates the list whenever vehicles are added/removed
-        viewModel.getVehicles().observe(this, vehicles -> {
+        viewModel.getVehicleStyles().observe(this, styles -> {
+            List<VehicleStyle> vehicles = styles.list();
             // Update subtitle and empty state from current list.
             binding.tvSubtitle.setText(vehicles.size() + " vehicle" + (vehicles.size() == 1 ? "" : "s"));
 
             binding.layoutEmpty.setVisibility(vehicles.isEmpty() ? android.view.View.VISIBLE : android.view.View.GONE);
 
             // Sync list and current selection.
-            adapter.submitList(new ArrayList<>(vehicles));
+            adapter.submitList(vehicles);
             adapter.setSelectedVehicleId(Prefs.getSelectedVehicleId(this));
         });
     }
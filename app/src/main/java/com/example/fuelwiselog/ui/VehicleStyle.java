@@ -0,0 +1,107 @@
+package com.example.fuelwiselog.ui;
+
+import android.graphics.Color;
+import android.util.LongSparseArray;
+
+import com.example.fuelwiselog.data.Vehicle;
+import com.example.fuelwiselog.data.VehicleCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Display values of one vehicle: icon, labels and the parsed ARGB colour. Built once per version of
+// the vehicles table (see Table) so list rows and cards only assign them, never parse or concatenate.
+final class VehicleStyle {
+
+    // Unknown colour strings fall back to this instead of failing on bind
+    static final int FALLBACK_COLOR = Color.LTGRAY;
+
+    // Rows whose vehicle is not (or not yet) known
+    static final VehicleStyle UNKNOWN = new VehicleStyle(null, "Vehicle", "Other", Color.parseColor("#B4A7D6"));
+
+    // Builds Tables off the main thread, in the order the snapshots arrive
+    static final ExecutorService BUILD_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    final Vehicle vehicle; // null for UNKNOWN
+    final String name;
+    final String type;
+    final String icon;
+    // "Name (Type)", as used by the vehicle dropdowns
+    final String label;
+    final boolean hasPlate;
+    final int color;
+
+    private VehicleStyle(Vehicle vehicle, String name, String type, int color) {
+        this.vehicle = vehicle;
+        this.name = name;
+        this.type = type;
+        this.icon = VehicleEmojiMapper.getEmoji(type);
+        this.label = name + " (" + type + ")";
+        this.hasPlate = vehicle != null && vehicle.getPlateNumber() != null
+                && !vehicle.getPlateNumber().trim().isEmpty();
+        this.color = color;
+    }
+
+    static VehicleStyle of(Vehicle v) {
+        return new VehicleStyle(v, v.getName(), v.getType(), parseColor(v.getColorHex()));
+    }
+
+    static int parseColor(String hex) {
+        try {
+            return Color.parseColor(hex);
+        } catch (Exception e) {
+            return FALLBACK_COLOR;
+        }
+    }
+
+    // Same row as far as a list is concerned (what the adapters diff on)
+    boolean sameContent(VehicleStyle o) {
+        if (o == this) return true;
+        return name.equals(o.name) && type.equals(o.type) && color == o.color
+                && hasPlate == o.hasPlate && (!hasPlate || vehicle.getPlateNumber().equals(o.vehicle.getPlateNumber()));
+    }
+
+    // Styles for every vehicle of one VehicleCache snapshot, in the snapshot's (name) order.
+    // The last table built is kept, so the log worker and the screens share it until the table changes.
+    static final class Table {
+
+        static final Table EMPTY = new Table(null, Collections.emptyList());
+
+        private static volatile Table latest = EMPTY;
+
+        private final VehicleCache.Snapshot source;
+        private final List<VehicleStyle> list;
+        private final LongSparseArray<VehicleStyle> byId;
+
+        private Table(VehicleCache.Snapshot source, List<VehicleStyle> list) {
+            this.source = source;
+            this.list = Collections.unmodifiableList(list);
+            byId = new LongSparseArray<>(list.size());
+            for (VehicleStyle s : list) byId.put(s.vehicle.getId(), s);
+        }
+
+        // Cheap when the snapshot has not changed since the last call
+        static Table of(VehicleCache.Snapshot snapshot) {
+            if (snapshot == null) return EMPTY;
+            Table t = latest;
+            if (t.source == snapshot) return t;
+            List<VehicleStyle> styles = new ArrayList<>(snapshot.list().size());
+            for (Vehicle v : snapshot.list()) styles.add(VehicleStyle.of(v));
+            t = new Table(snapshot, styles);
+            latest = t;
+            return t;
+        }
+
+        List<VehicleStyle> list() {
+            return list;
+        }
+
+        // UNKNOWN when the id is not in this table
+        VehicleStyle get(long vehicleId) {
+            return byId.get(vehicleId, UNKNOWN);
+        }
+    }
+}
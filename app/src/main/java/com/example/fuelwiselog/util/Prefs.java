@@ -2,10 +2,23 @@ package com.example.fuelwiselog.util;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.appcompat.app.AppCompatDelegate;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
 
-// Utility class to handle SharedPreferences (saving small settings like Theme and Active Vehicle)
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Small settings (Theme and Active Vehicle), kept in memory.
+// The SharedPreferences file is read once on a background thread, started by FuelWiseApp at launch;
+// after that reads are plain field reads and writes are persisted on the same background thread.
+// Only a read that races the very first load waits for it.
 public final class Prefs {
 
     private Prefs() {}
@@ -14,37 +27,104 @@ public final class Prefs {
     private static final String KEY_NIGHT_MODE = "night_mode";
     private static final String KEY_SELECTED_VEHICLE_ID = "selected_vehicle_id";
 
+    // Loads and persists in order, so a write never overtakes the initial read
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor();
+    private static final AtomicBoolean loadStarted = new AtomicBoolean(false);
+    private static final CountDownLatch loaded = new CountDownLatch(1);
+    private static SharedPreferences sp; // IO thread only
+
+    private static volatile int nightMode = AppCompatDelegate.MODE_NIGHT_FOLLOW_SYSTEM;
+    private static volatile long selectedVehicleId = -1L;
+    private static final MutableLiveData<Integer> nightModeLive = new MutableLiveData<>();
+    private static final MutableLiveData<Long> selectedVehicleIdLive = new MutableLiveData<>();
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    // Starts the one-time background read; later calls do nothing
+    public static void preload(Context context) {
+        if (!loadStarted.compareAndSet(false, true)) return;
+        Context app = context.getApplicationContext();
+        IO.execute(() -> {
+            sp = app.getSharedPreferences(FILE, Context.MODE_PRIVATE);
+            nightMode = sp.getInt(KEY_NIGHT_MODE, AppCompatDelegate.MODE_NIGHT_FOLLOW_SYSTEM);
+            selectedVehicleId = sp.getLong(KEY_SELECTED_VEHICLE_ID, -1L);
+            loaded.countDown();
+            publish(nightModeLive, () -> nightMode);
+            publish(selectedVehicleIdLive, () -> selectedVehicleId);
+        });
+    }
+
     // Checks the saved theme preference and applies it (Light/Dark/System)
     public static void applySavedNightMode(Context context) {
         AppCompatDelegate.setDefaultNightMode(getNightMode(context));
     }
 
     public static int getNightMode(Context context) {
-        SharedPreferences sp = context.getSharedPreferences(FILE, Context.MODE_PRIVATE);
-        return sp.getInt(KEY_NIGHT_MODE, AppCompatDelegate.MODE_NIGHT_FOLLOW_SYSTEM);
+        awaitLoaded(context);
+        return nightMode;
+    }
+
+    // Emits the theme choice once loaded and on every change
+    public static LiveData<Integer> nightMode(Context context) {
+        preload(context);
+        return nightModeLive;
     }
 
     // Saves the user's theme choice and updates the app appearance immediately
     public static void setNightMode(Context context, int mode) {
-        context.getSharedPreferences(FILE, Context.MODE_PRIVATE)
-                .edit()
-                .putInt(KEY_NIGHT_MODE, mode)
-                .apply();
-
+        awaitLoaded(context);
+        if (mode != nightMode) {
+            nightMode = mode;
+            publish(nightModeLive, () -> nightMode);
+            IO.execute(() -> sp.edit().putInt(KEY_NIGHT_MODE, mode).apply());
+        }
         AppCompatDelegate.setDefaultNightMode(mode);
     }
 
     // Retrieves the ID of the last selected vehicle so the app remembers it on restart
     public static long getSelectedVehicleId(Context context) {
-        SharedPreferences sp = context.getSharedPreferences(FILE, Context.MODE_PRIVATE);
-        return sp.getLong(KEY_SELECTED_VEHICLE_ID, -1L);
+        awaitLoaded(context);
+        return selectedVehicleId;
+    }
+
+    // Emits the selected vehicle ID once loaded and whenever any screen changes it
+    public static LiveData<Long> selectedVehicleId(Context context) {
+        preload(context);
+        return selectedVehicleIdLive;
     }
 
     // Persists the currently active vehicle ID
     public static void setSelectedVehicleId(Context context, long vehicleId) {
-        context.getSharedPreferences(FILE, Context.MODE_PRIVATE)
-                .edit()
-                .putLong(KEY_SELECTED_VEHICLE_ID, vehicleId)
-                .apply();
+        awaitLoaded(context);
+        if (vehicleId == selectedVehicleId) return;
+        selectedVehicleId = vehicleId;
+        publish(selectedVehicleIdLive, () -> selectedVehicleId);
+        IO.execute(() -> sp.edit().putLong(KEY_SELECTED_VEHICLE_ID, vehicleId).apply());
+    }
+
+    // No-op once loaded; only the first read of a cold start can block here
+    private static void awaitLoaded(Context context) {
+        if (loaded.getCount() == 0) return;
+        preload(context);
+        boolean interrupted = false;
+        while (true) {
+            try {
+                loaded.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    // Sets the stream to the field's value on the main thread. The field is read when the update runs, not
+    // when it is queued, so an update queued by the initial load can never overwrite a newer choice.
+    private static <T> void publish(MutableLiveData<T> live, Supplier<T> latest) {
+        Runnable update = () -> {
+            T value = latest.get();
+            if (!value.equals(live.getValue())) live.setValue(value);
+        };
+        if (Looper.myLooper() == Looper.getMainLooper()) update.run();
+        else MAIN.post(update);
     }
-}
\ No newline at end of file
+}
@@ -2,4 +2,5 @@
 // This source pack focuses on the app module + code/resources.
 plugins {
     id("com.android.application") version "8.13.2" apply false
+    id("me.champeau.jmh") version "0.7.2" apply false
 }
\ No newline at end of file
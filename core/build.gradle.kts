@@ -0,0 +1,33 @@
+// Plain-Java efficiency and summary math used by :app. No Android dependencies, so it
+// runs (and is benchmarked) on any JVM: ./gradlew :core:jmh
+plugins {
+    `java-library`
+    id("me.champeau.jmh")
+}
+
+java {
+    // Same level as :app; stick to APIs available at the app's minSdk (no java.time).
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+dependencies {
+    testImplementation("junit:junit:4.13.2")
+}
+
+// The tests also cover the benchmark reference code in src/jmh (FuelLogMath)
+sourceSets.test {
+    compileClasspath += sourceSets["jmh"].output
+    runtimeClasspath += sourceSets["jmh"].output
+}
+
+jmh {
+    // Narrow a run with e.g. -Pjmh.includes=SummaryBenchmark
+    (project.findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    // The dependency runs the other way: the tests use the jmh classes (see sourceSets.test above)
+    includeTests.set(false)
+    resultFormat.set("JSON")
+}
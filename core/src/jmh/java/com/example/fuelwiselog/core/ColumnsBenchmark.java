@@ -0,0 +1,51 @@
+package com.example.fuelwiselog.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The SummaryBenchmark workloads over FuelColumns instead of FuelEntry lists
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColumnsBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int records;
+
+    private FuelColumns columns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        columns = Datasets.columns(records);
+    }
+
+    // Interval columns for every vehicle range, rewritten in place
+    @Benchmark
+    public FuelColumns recomputeIntervals() {
+        for (int v = 0; v < columns.vehicleRanges(); v++) {
+            FuelLogMath.recomputeIntervals(columns, columns.start(v), columns.end(v));
+        }
+        return columns;
+    }
+
+    @Benchmark
+    public Map<Long, VehicleTotals> totalsByVehicle() {
+        return FuelLogMath.totalsByVehicle(columns);
+    }
+
+    // One-pass mean/variance/median/p90 per vehicle, then merged into the fleet figures
+    @Benchmark
+    public EfficiencyStats efficiencyStatsFleet() {
+        return EfficiencyStats.merged(EfficiencyStats.byVehicle(columns).values());
+    }
+}
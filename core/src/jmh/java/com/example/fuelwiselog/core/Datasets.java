@@ -0,0 +1,48 @@
+package com.example.fuelwiselog.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic fuel histories for the benchmarks, ordered by (vehicleId, mileageKm) like the DAO query
+final class Datasets {
+
+    static final int VEHICLES = 5;
+    // 2015-01-01
+    private static final long START_DAY = EpochDays.fromCivil(2015, 1, 1);
+
+    private Datasets() {}
+
+    static List<FuelEntry> history(int records) {
+        Random rnd = new Random(42);
+        List<FuelEntry> out = new ArrayList<>(records);
+        long id = 1;
+        for (int v = 1; v <= VEHICLES; v++) {
+            int count = records / VEHICLES + (v <= records % VEHICLES ? 1 : 0);
+            double mileage = 10_000 + rnd.nextInt(50_000);
+            long day = START_DAY;
+            for (int i = 0; i < count; i++) {
+                // Roughly weekly fill-ups of 20-50 L; a few duplicates exercise the "no interval" path.
+                double liters = 20 + rnd.nextDouble() * 30;
+                double cost = liters * (2.05 + rnd.nextDouble() * 0.6);
+                mileage += rnd.nextInt(50) == 0 ? 0 : 150 + rnd.nextDouble() * 450;
+                day += 1 + rnd.nextInt(10);
+                out.add(new FuelEntry(id++, v, day, liters, cost, Math.floor(mileage)));
+            }
+        }
+        return out;
+    }
+
+    // The same history as columns, with the interval columns filled in per vehicle range
+    static FuelColumns columns(int records) {
+        List<FuelEntry> entries = history(records);
+        FuelColumns.Builder b = new FuelColumns.Builder(entries.size());
+        for (FuelEntry e : entries) {
+            b.add(e.id, e.vehicleId, (int) e.epochDay, e.mileageKm, e.costRm, e.volumeLiters,
+                    Double.NaN, Double.NaN, Double.NaN);
+        }
+        FuelColumns c = b.build();
+        for (int v = 0; v < c.vehicleRanges(); v++) FuelLogMath.recomputeIntervals(c, c.start(v), c.end(v));
+        return c;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.fuelwiselog.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BinaryOperator;
+
+// Whole-fleet computations over a FuelColumns snapshot (ordered by vehicle and mileage), run on a
+// ForkJoinPool. Vehicles are independent, so the rows are cut into segments along vehicle ranges;
+// a vehicle with more than SEGMENT_ROWS rows is cut further, so one large vehicle still spreads over
+// every core. Each segment is computed on its own and the partial results are merged per vehicle.
+// Like FuelLogMath, it sits next to the benchmarks: the app keeps these results current at write time.
+public final class FleetParallel {
+
+    // Rows per leaf task: big enough to amortise the fork, small enough to balance the cores
+    static final int SEGMENT_ROWS = 4096;
+
+    private FleetParallel() {}
+
+    // Result for rows [from, to), all of one vehicle
+    public interface RangeFunction<R> {
+        R apply(FuelColumns c, int from, int to);
+    }
+
+    // Per-vehicle results: fn over every segment in parallel, then merge (a, b) -> a in row order
+    public static <R> Map<Long, R> byVehicle(ForkJoinPool pool, FuelColumns c,
+                                             RangeFunction<R> fn, BinaryOperator<R> merge) {
+        int[] segments = segments(c);
+        int count = segments.length / 3;
+        @SuppressWarnings("unchecked")
+        R[] partial = (R[]) new Object[count];
+        pool.invoke(new SegmentTask(0, count, i -> partial[i] = fn.apply(c, segments[3 * i + 1], segments[3 * i + 2])));
+
+        Map<Long, R> out = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            long vehicleId = c.rangeVehicleId(segments[3 * i]);
+            R existing = out.get(vehicleId);
+            out.put(vehicleId, existing == null ? partial[i] : merge.apply(existing, partial[i]));
+        }
+        return out;
+    }
+
+    // Running totals per vehicle (same result as FuelLogMath.totalsByVehicle(c))
+    public static Map<Long, VehicleTotals> totalsByVehicle(ForkJoinPool pool, FuelColumns c) {
+        return byVehicle(pool, c, FuelColumns::totals, (a, b) -> {
+            a.merge(b);
+            return a;
+        });
+    }
+
+    // Efficiency distributions per vehicle (same result as EfficiencyStats.byVehicle(c))
+    public static Map<Long, EfficiencyStats> efficiencyByVehicle(ForkJoinPool pool, FuelColumns c) {
+        return byVehicle(pool, c, (cols, from, to) -> {
+            EfficiencyStats s = new EfficiencyStats();
+            s.add(cols, from, to);
+            return s;
+        }, (a, b) -> {
+            a.merge(b);
+            return a;
+        });
+    }
+
+    // Rewrites every row's interval columns; segments write disjoint rows
+    public static void recomputeIntervals(ForkJoinPool pool, FuelColumns c) {
+        int[] segments = segments(c);
+        pool.invoke(new SegmentTask(0, segments.length / 3,
+                i -> FuelLogMath.recomputeIntervals(c, segments[3 * i + 1], segments[3 * i + 2])));
+    }
+
+    // Flat (range index, from, to) triples covering every row, each at most SEGMENT_ROWS long
+    private static int[] segments(FuelColumns c) {
+        List<int[]> out = new ArrayList<>();
+        for (int v = 0; v < c.vehicleRanges(); v++) {
+            for (int from = c.start(v); from < c.end(v); from += SEGMENT_ROWS) {
+                out.add(new int[]{v, from, Math.min(from + SEGMENT_ROWS, c.end(v))});
+            }
+        }
+        int[] flat = new int[out.size() * 3];
+        for (int i = 0; i < out.size(); i++) System.arraycopy(out.get(i), 0, flat, 3 * i, 3);
+        return flat;
+    }
+
+    private interface SegmentBody {
+        void run(int segment);
+    }
+
+    // Splits [lo, hi) of the segment list in halves until one segment is left
+    private static final class SegmentTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo;
+        private final int hi;
+        private final transient SegmentBody body;
+
+        SegmentTask(int lo, int hi, SegmentBody body) {
+            this.lo = lo;
+            this.hi = hi;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= 1) {
+                for (int i = lo; i < hi; i++) body.run(i);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new SegmentTask(lo, mid, body), new SegmentTask(mid, hi, body));
+        }
+    }
+}
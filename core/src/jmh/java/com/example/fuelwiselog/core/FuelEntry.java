@@ -0,0 +1,22 @@
+package com.example.fuelwiselog.core;
+
+// One fill-up as plain values, for the benchmark datasets and FuelLogMath
+public final class FuelEntry {
+
+    public final long id;
+    public final long vehicleId;
+    // Days since 1970-01-01 (see EpochDays)
+    public final long epochDay;
+    public final double volumeLiters;
+    public final double costRm;
+    public final double mileageKm;
+
+    public FuelEntry(long id, long vehicleId, long epochDay, double volumeLiters, double costRm, double mileageKm) {
+        this.id = id;
+        this.vehicleId = vehicleId;
+        this.epochDay = epochDay;
+        this.volumeLiters = volumeLiters;
+        this.costRm = costRm;
+        this.mileageKm = mileageKm;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.fuelwiselog.core;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Whole-history computations over plain FuelEntry lists and FuelColumns snapshots: interval columns
+// and per-vehicle totals. The app never recomputes a whole history (it stores intervals and totals at
+// write time), so this lives with the benchmarks as the reference they measure. The unit tests run it too.
+public final class FuelLogMath {
+
+    private FuelLogMath() {}
+
+    // Totals per vehicle in one pass; input ordered by (vehicleId, mileageKm)
+    public static Map<Long, VehicleTotals> totalsByVehicle(List<FuelEntry> byVehicleAndMileage) {
+        Map<Long, VehicleTotals> totals = new LinkedHashMap<>();
+        FuelEntry prev = null;
+        VehicleTotals current = null;
+        for (FuelEntry e : byVehicleAndMileage) {
+            if (current == null || prev.vehicleId != e.vehicleId) {
+                current = totals.get(e.vehicleId);
+                if (current == null) {
+                    current = new VehicleTotals();
+                    totals.put(e.vehicleId, current);
+                }
+                prev = null;
+            }
+            Interval interval = prev == null ? null
+                    : Interval.between(prev.mileageKm, e.mileageKm, e.costRm, e.volumeLiters);
+            current.add(e.costRm, e.volumeLiters, e.mileageKm, interval);
+            prev = e;
+        }
+        return totals;
+    }
+
+    // ---------------- Columnar variants (FuelColumns) ----------------
+    // Same results without per-row objects: rows are addressed by index.
+
+    // Recomputes the interval columns of rows [from, to) in place, for a snapshot ordered by vehicle
+    // and mileage. Each row is compared with the row before it when that row is the same vehicle,
+    // so any slice of a vehicle range can be recomputed on its own (only mileage is read across it).
+    public static void recomputeIntervals(FuelColumns c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            boolean hasPrevious = i > 0 && c.vehicleIds[i - 1] == c.vehicleIds[i];
+            double distance = hasPrevious ? c.mileageKm[i] - c.mileageKm[i - 1] : Double.NaN;
+            if (distance > 0) {
+                c.distanceKm[i] = distance;
+                c.rmPerKm[i] = c.costRm[i] / distance;
+                c.litersPer100Km[i] = (c.volumeLiters[i] / distance) * 100.0;
+            } else {
+                c.distanceKm[i] = Double.NaN;
+                c.rmPerKm[i] = Double.NaN;
+                c.litersPer100Km[i] = Double.NaN;
+            }
+        }
+    }
+
+    // Totals per vehicle range from the stored interval columns
+    public static Map<Long, VehicleTotals> totalsByVehicle(FuelColumns c) {
+        Map<Long, VehicleTotals> totals = new LinkedHashMap<>();
+        for (int v = 0; v < c.vehicleRanges(); v++) {
+            VehicleTotals t = c.totals(c.start(v), c.end(v));
+            VehicleTotals existing = totals.get(c.rangeVehicleId(v));
+            if (existing == null) totals.put(c.rangeVehicleId(v), t);
+            else existing.merge(t);
+        }
+        return totals;
+    }
+}
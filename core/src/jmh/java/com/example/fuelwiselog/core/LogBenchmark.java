@@ -0,0 +1,109 @@
+package com.example.fuelwiselog.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// The in-memory side of FuelLogPager over the whole history, without the database and the Android
+// text: newest-first pages are copied into FuelColumns as FuelColumnsReader does, every row gets its
+// date text and month, and LogKeys gets the row keys with a header at each new month.
+// filterByVehicle does the same for the rows the vehicle-filtered page query returns, and patchRow
+// is one FuelRecordChange applied to the loaded window (search, remove, insert back).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LogBenchmark {
+
+    // FuelLogPager.PAGE_SIZE
+    private static final int PAGE_SIZE = 50;
+    private static final long FILTER_VEHICLE = 3;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int records;
+
+    private FuelColumns history;
+    // Row indices of history in log order (newest day, then newest id)
+    private int[] newestFirst;
+    private int[] vehicleNewestFirst;
+    private LogKeys window;
+    private long patchDay;
+    private long patchId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = Datasets.columns(records);
+        Integer[] order = new Integer[history.size];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> history.epochDays[a] != history.epochDays[b]
+                ? Integer.compare(history.epochDays[b], history.epochDays[a])
+                : Long.compare(history.ids[b], history.ids[a]));
+        newestFirst = Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+        vehicleNewestFirst = Arrays.stream(newestFirst).filter(i -> history.vehicleIds[i] == FILTER_VEHICLE).toArray();
+
+        window = build(newestFirst, null);
+        // A row in the middle of the window; patching it shifts half the keys
+        int mid = window.size() / 2;
+        if (window.isHeader(mid)) mid++;
+        patchDay = window.epochDay(mid);
+        patchId = window.id(mid);
+    }
+
+    @Benchmark
+    public LogKeys buildLog(Blackhole bh) {
+        return build(newestFirst, bh);
+    }
+
+    @Benchmark
+    public LogKeys filterByVehicle(Blackhole bh) {
+        return build(vehicleNewestFirst, bh);
+    }
+
+    @Benchmark
+    public int patchRow() {
+        int pos = window.search(patchDay, patchId);
+        window.remove(pos);
+        window.insert(pos, patchDay, patchId);
+        return pos;
+    }
+
+    private LogKeys build(int[] rows, Blackhole bh) {
+        LogKeys keys = new LogKeys(rows.length + rows.length / 8 + 1);
+        int month = -1;
+        for (int from = 0; from < rows.length; from += PAGE_SIZE) {
+            FuelColumns page = page(rows, from, Math.min(from + PAGE_SIZE, rows.length));
+            for (int i = 0; i < page.size; i++) {
+                int ym = EpochDays.yearMonth(page.epochDays[i]);
+                if (ym != month) {
+                    month = ym;
+                    keys.add(LogKeys.headerDay(ym), LogKeys.HEADER_ID);
+                }
+                keys.add(page.epochDays[i], page.ids[i]);
+                String dateIso = EpochDays.toIso(page.epochDays[i]);
+                if (bh != null) bh.consume(dateIso);
+            }
+        }
+        return keys;
+    }
+
+    // Rows [from, to) of the order as one page, column by column like a cursor read
+    private FuelColumns page(int[] rows, int from, int to) {
+        FuelColumns.Builder b = new FuelColumns.Builder(to - from);
+        for (int k = from; k < to; k++) {
+            int i = rows[k];
+            b.add(history.ids[i], history.vehicleIds[i], history.epochDays[i], history.mileageKm[i],
+                    history.costRm[i], history.volumeLiters[i], history.distanceKm[i], history.rmPerKm[i],
+                    history.litersPer100Km[i]);
+        }
+        return b.build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.fuelwiselog.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Whole-fleet recompute: the sequential FuelColumns path against FleetParallel on the common pool
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallelBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int records;
+
+    private FuelColumns columns;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        columns = Datasets.columns(records);
+        pool = ForkJoinPool.commonPool();
+    }
+
+    @Benchmark
+    public FuelColumns intervalsSequential() {
+        for (int v = 0; v < columns.vehicleRanges(); v++) {
+            FuelLogMath.recomputeIntervals(columns, columns.start(v), columns.end(v));
+        }
+        return columns;
+    }
+
+    @Benchmark
+    public FuelColumns intervalsParallel() {
+        FleetParallel.recomputeIntervals(pool, columns);
+        return columns;
+    }
+
+    @Benchmark
+    public Map<Long, VehicleTotals> totalsSequential() {
+        return FuelLogMath.totalsByVehicle(columns);
+    }
+
+    @Benchmark
+    public Map<Long, VehicleTotals> totalsParallel() {
+        return FleetParallel.totalsByVehicle(pool, columns);
+    }
+
+    @Benchmark
+    public Map<Long, EfficiencyStats> efficiencySequential() {
+        return EfficiencyStats.byVehicle(columns);
+    }
+
+    @Benchmark
+    public Map<Long, EfficiencyStats> efficiencyParallel() {
+        return FleetParallel.efficiencyByVehicle(pool, columns);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.fuelwiselog.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Dashboard aggregation: per-vehicle totals over the whole history, then the summary figures
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SummaryBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int records;
+
+    private List<FuelEntry> history;
+    private VehicleTotals totals;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = Datasets.history(records);
+        totals = FuelLogMath.totalsByVehicle(history).get(1L);
+    }
+
+    @Benchmark
+    public Map<Long, VehicleTotals> totalsByVehicle() {
+        return FuelLogMath.totalsByVehicle(history);
+    }
+
+    // What the dashboard does now: one row of running totals in, summary out
+    @Benchmark
+    public DashboardSummary summaryFromTotals() {
+        return totals.toSummary();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.fuelwiselog.core;
+
+// The dashboard statistics of one vehicle, derived from its running totals (no pass over the history)
+public final class DashboardSummary {
+
+    public final double totalDistanceKm;
+    public final double totalCostRm;
+    public final double avgRmPerKm;
+    public final double avgLitersPer100Km;
+
+    public DashboardSummary(double totalDistanceKm, double totalCostRm, double avgRmPerKm, double avgLitersPer100Km) {
+        this.totalDistanceKm = totalDistanceKm;
+        this.totalCostRm = totalCostRm;
+        this.avgRmPerKm = avgRmPerKm;
+        this.avgLitersPer100Km = avgLitersPer100Km;
+    }
+
+    // Null unless there are at least two fill-ups, the mileage moved and some fill-up has an interval
+    public static DashboardSummary from(int recordCount, double minMileageKm, double maxMileageKm, double totalCostRm,
+                                        int efficiencyCount, double sumRmPerKm, double sumLitersPer100Km) {
+        if (recordCount < 2) return null;
+
+        double totalDistance = maxMileageKm - minMileageKm;
+        if (!(totalDistance > 0)) return null;
+
+        // Averages only count records that have a previous fill-up to compare with.
+        if (efficiencyCount == 0) return null;
+        return new DashboardSummary(totalDistance, totalCostRm,
+                sumRmPerKm / efficiencyCount, sumLitersPer100Km / efficiencyCount);
+    }
+}
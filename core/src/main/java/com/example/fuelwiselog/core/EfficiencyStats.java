@@ -0,0 +1,64 @@
+package com.example.fuelwiselog.core;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Distribution of RM/km and L/100km over fill-ups that have an interval, gathered in one pass.
+// Per-vehicle results merge into fleet results without touching the rows again.
+public final class EfficiencyStats {
+
+    public final StreamingStats rmPerKm = new StreamingStats();
+    public final StreamingStats litersPer100Km = new StreamingStats();
+
+    // Rows [from, to) of a snapshot; rows without an interval (NaN) are skipped
+    public void add(FuelColumns c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!c.hasInterval(i)) continue;
+            rmPerKm.add(c.rmPerKm[i]);
+            litersPer100Km.add(c.litersPer100Km[i]);
+        }
+    }
+
+    public void add(double rmPerKm, double litersPer100Km) {
+        this.rmPerKm.add(rmPerKm);
+        this.litersPer100Km.add(litersPer100Km);
+    }
+
+    public void add(Interval interval) {
+        if (interval == null) return;
+        rmPerKm.add(interval.rmPerKm);
+        litersPer100Km.add(interval.litersPer100Km);
+    }
+
+    public void merge(EfficiencyStats other) {
+        rmPerKm.merge(other.rmPerKm);
+        litersPer100Km.merge(other.litersPer100Km);
+    }
+
+    // Fill-ups counted
+    public long count() {
+        return rmPerKm.count();
+    }
+
+    // One accumulator per vehicle range of the snapshot
+    public static Map<Long, EfficiencyStats> byVehicle(FuelColumns c) {
+        Map<Long, EfficiencyStats> out = new LinkedHashMap<>();
+        for (int v = 0; v < c.vehicleRanges(); v++) {
+            EfficiencyStats s = out.get(c.rangeVehicleId(v));
+            if (s == null) {
+                s = new EfficiencyStats();
+                out.put(c.rangeVehicleId(v), s);
+            }
+            s.add(c, c.start(v), c.end(v));
+        }
+        return out;
+    }
+
+    // Fleet-wide result from per-vehicle results
+    public static EfficiencyStats merged(Collection<EfficiencyStats> parts) {
+        EfficiencyStats fleet = new EfficiencyStats();
+        for (EfficiencyStats s : parts) fleet.merge(s);
+        return fleet;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.fuelwiselog.core;
+
+// Converts between "YYYY-MM-DD" strings and days since 1970-01-01 (proleptic Gregorian).
+// Plain arithmetic, so it works below API 26 (no java.time) and matches SQLite's julianday().
+public final class EpochDays {
+
+    private EpochDays() {}
+
+    // Stored for dates that cannot be parsed (same as the column default)
+    public static final long UNKNOWN = 0;
+
+    // "2024-03-15" -> 19797; UNKNOWN if the string is not a valid ISO date
+    public static long fromIso(String iso) {
+        if (!isIso(iso)) return UNKNOWN;
+        return fromCivil(digits(iso, 0, 4), digits(iso, 5, 7), digits(iso, 8, 10));
+    }
+
+    // True for "YYYY-MM-DD" naming a day that exists ("2024-02-29" yes, "2023-02-29" and "2024-04-31" no)
+    public static boolean isIso(String iso) {
+        if (iso == null || iso.length() != 10 || iso.charAt(4) != '-' || iso.charAt(7) != '-') return false;
+        int year = digits(iso, 0, 4);
+        int month = digits(iso, 5, 7);
+        int day = digits(iso, 8, 10);
+        if (year < 0 || month < 1 || month > 12) return false;
+        return day >= 1 && day <= daysInMonth(year, month);
+    }
+
+    // Length of a month (1-12) in the proleptic Gregorian calendar
+    public static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // Days since the epoch for a calendar date (month 1-12)
+    public static long fromCivil(int year, int month, int day) {
+        // Shift the year to start in March so the leap day is the last day of the year.
+        int y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;                                   // [0, 399]
+        long doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1; // [0, 365]
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;           // [0, 146096]
+        return era * 146097 + doe - 719468;
+    }
+
+    // 19797 -> "2024-03-15"
+    public static String toIso(long epochDay) {
+        long ymd = toYmd(epochDay);
+        char[] out = new char[10];
+        put(out, 0, ymd / 10000, 4);
+        out[4] = '-';
+        put(out, 5, ymd / 100 % 100, 2);
+        out[7] = '-';
+        put(out, 8, ymd % 100, 2);
+        return new String(out);
+    }
+
+    // 19797 -> 202403; the key of the monthly rollup
+    public static int yearMonth(long epochDay) {
+        return (int) (toYmd(epochDay) / 100);
+    }
+
+    // 19797 -> 20240315
+    private static long toYmd(long epochDay) {
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long day = doy - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    // Parses s[from, to) as a non-negative number; -1 if any char is not a digit
+    private static int digits(String s, int from, int to) {
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private static void put(char[] out, int at, long value, int width) {
+        for (int i = at + width - 1; i >= at; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.fuelwiselog.core;
+
+import java.util.Arrays;
+
+// Column-oriented snapshot of fill-ups: one primitive array per field instead of one object per row.
+// A row is an index i into the arrays. Rows with no interval hold NaN in the three interval columns.
+//
+// Runs of equal vehicleId form ranges (start(v) .. end(v)); when the rows are ordered by vehicle,
+// as in the full-history query, there is exactly one range per vehicle.
+public final class FuelColumns {
+
+    public final int size;
+    public final long[] ids;
+    public final long[] vehicleIds;
+    public final int[] epochDays;
+    public final double[] mileageKm;
+    public final double[] costRm;
+    public final double[] volumeLiters;
+    public final double[] distanceKm;
+    public final double[] rmPerKm;
+    public final double[] litersPer100Km;
+
+    // Vehicle ranges: rows [rangeStart[v], rangeStart[v + 1]) belong to rangeVehicleIds[v]
+    private final long[] rangeVehicleIds;
+    private final int[] rangeStart;
+
+    public static final FuelColumns EMPTY = new Builder(0).build();
+
+    private FuelColumns(Builder b) {
+        size = b.size;
+        ids = Arrays.copyOf(b.ids, size);
+        vehicleIds = Arrays.copyOf(b.vehicleIds, size);
+        epochDays = Arrays.copyOf(b.epochDays, size);
+        mileageKm = Arrays.copyOf(b.mileageKm, size);
+        costRm = Arrays.copyOf(b.costRm, size);
+        volumeLiters = Arrays.copyOf(b.volumeLiters, size);
+        distanceKm = Arrays.copyOf(b.distanceKm, size);
+        rmPerKm = Arrays.copyOf(b.rmPerKm, size);
+        litersPer100Km = Arrays.copyOf(b.litersPer100Km, size);
+
+        int runs = 0;
+        for (int i = 0; i < size; i++) if (i == 0 || vehicleIds[i] != vehicleIds[i - 1]) runs++;
+        rangeVehicleIds = new long[runs];
+        rangeStart = new int[runs + 1];
+        int v = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || vehicleIds[i] != vehicleIds[i - 1]) {
+                rangeVehicleIds[v] = vehicleIds[i];
+                rangeStart[v++] = i;
+            }
+        }
+        rangeStart[runs] = size;
+    }
+
+    public boolean hasInterval(int i) {
+        return !Double.isNaN(distanceKm[i]);
+    }
+
+    public int vehicleRanges() {
+        return rangeVehicleIds.length;
+    }
+
+    public long rangeVehicleId(int v) {
+        return rangeVehicleIds[v];
+    }
+
+    // First row of range v
+    public int start(int v) {
+        return rangeStart[v];
+    }
+
+    // One past the last row of range v
+    public int end(int v) {
+        return rangeStart[v + 1];
+    }
+
+    // Totals of rows [from, to) using the stored interval columns
+    public VehicleTotals totals(int from, int to) {
+        VehicleTotals t = new VehicleTotals();
+        for (int i = from; i < to; i++) {
+            t.add(costRm[i], volumeLiters[i], mileageKm[i], distanceKm[i], rmPerKm[i], litersPer100Km[i]);
+        }
+        return t;
+    }
+
+    // Appends rows one at a time with amortised growth; build() trims to size
+    public static final class Builder {
+        private int size;
+        private long[] ids;
+        private long[] vehicleIds;
+        private int[] epochDays;
+        private double[] mileageKm;
+        private double[] costRm;
+        private double[] volumeLiters;
+        private double[] distanceKm;
+        private double[] rmPerKm;
+        private double[] litersPer100Km;
+
+        public Builder(int expectedRows) {
+            int n = Math.max(expectedRows, 16);
+            ids = new long[n];
+            vehicleIds = new long[n];
+            epochDays = new int[n];
+            mileageKm = new double[n];
+            costRm = new double[n];
+            volumeLiters = new double[n];
+            distanceKm = new double[n];
+            rmPerKm = new double[n];
+            litersPer100Km = new double[n];
+        }
+
+        // Pass NaN for the interval columns when the row has none
+        public Builder add(long id, long vehicleId, int epochDay, double mileage, double cost, double liters,
+                           double distance, double rmKm, double lPer100) {
+            if (size == ids.length) grow();
+            ids[size] = id;
+            vehicleIds[size] = vehicleId;
+            epochDays[size] = epochDay;
+            mileageKm[size] = mileage;
+            costRm[size] = cost;
+            volumeLiters[size] = liters;
+            distanceKm[size] = distance;
+            rmPerKm[size] = rmKm;
+            litersPer100Km[size] = lPer100;
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public FuelColumns build() {
+            return new FuelColumns(this);
+        }
+
+        private void grow() {
+            int n = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, n);
+            vehicleIds = Arrays.copyOf(vehicleIds, n);
+            epochDays = Arrays.copyOf(epochDays, n);
+            mileageKm = Arrays.copyOf(mileageKm, n);
+            costRm = Arrays.copyOf(costRm, n);
+            volumeLiters = Arrays.copyOf(volumeLiters, n);
+            distanceKm = Arrays.copyOf(distanceKm, n);
+            rmPerKm = Arrays.copyOf(rmPerKm, n);
+            litersPer100Km = Arrays.copyOf(litersPer100Km, n);
+        }
+    }
+}
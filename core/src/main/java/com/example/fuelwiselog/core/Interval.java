@@ -0,0 +1,25 @@
+package com.example.fuelwiselog.core;
+
+// Efficiency of one fill-up against the previous fill-up of the same vehicle (by mileage).
+// The fuel bought now is what was burnt driving since the previous fill-up.
+public final class Interval {
+
+    public final double distanceKm;
+    // Formula: Cost / Distance
+    public final double rmPerKm;
+    // Formula: (Liters / Distance) * 100
+    public final double litersPer100Km;
+
+    public Interval(double distanceKm, double rmPerKm, double litersPer100Km) {
+        this.distanceKm = distanceKm;
+        this.rmPerKm = rmPerKm;
+        this.litersPer100Km = litersPer100Km;
+    }
+
+    // Null when the mileage did not increase (first fill-up, duplicates or bad input)
+    public static Interval between(double previousMileageKm, double mileageKm, double costRm, double volumeLiters) {
+        double distance = mileageKm - previousMileageKm;
+        if (!(distance > 0)) return null;
+        return new Interval(distance, costRm / distance, (volumeLiters / distance) * 100.0);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.fuelwiselog.core;
+
+import java.util.Arrays;
+
+// Sort keys of a loaded fuel log window as two parallel primitive arrays, in display order: newest day
+// first, then newest id, the same order as the paging queries. Month headers take part in the order
+// with the key (headerDay(month), HEADER_ID), which sorts just before the rows of that month, so one
+// binary search finds rows and headers alike.
+public final class LogKeys {
+
+    // Id part of a header's key; real ids are positive
+    public static final long HEADER_ID = Long.MIN_VALUE;
+
+    private long[] epochDays;
+    private long[] ids;
+    private int size;
+
+    public LogKeys(int capacity) {
+        epochDays = new long[Math.max(1, capacity)];
+        ids = new long[Math.max(1, capacity)];
+    }
+
+    // Header key day: the first day of the next month. It is newer than every row of its month and,
+    // with HEADER_ID, older than every row of the next month.
+    public static long headerDay(int yearMonth) {
+        int year = yearMonth / 100;
+        int month = yearMonth % 100;
+        return month == 12 ? EpochDays.fromCivil(year + 1, 1, 1) : EpochDays.fromCivil(year, month + 1, 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long epochDay(int i) {
+        return epochDays[i];
+    }
+
+    public long id(int i) {
+        return ids[i];
+    }
+
+    public boolean isHeader(int i) {
+        return ids[i] == HEADER_ID;
+    }
+
+    public void add(long epochDay, long id) {
+        ensureCapacity(size + 1);
+        epochDays[size] = epochDay;
+        ids[size] = id;
+        size++;
+    }
+
+    public void insert(int at, long epochDay, long id) {
+        ensureCapacity(size + 1);
+        System.arraycopy(epochDays, at, epochDays, at + 1, size - at);
+        System.arraycopy(ids, at, ids, at + 1, size - at);
+        epochDays[at] = epochDay;
+        ids[at] = id;
+        size++;
+    }
+
+    public void remove(int at) {
+        System.arraycopy(epochDays, at + 1, epochDays, at, size - at - 1);
+        System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+        size--;
+    }
+
+    // Position of the key, or (-(insertion point) - 1) like Collections.binarySearch
+    public int search(long epochDay, long id) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            // Descending order: a larger key sorts earlier.
+            int c = epochDays[mid] != epochDay
+                    ? Long.compare(epochDay, epochDays[mid])
+                    : Long.compare(id, ids[mid]);
+            if (c == 0) return mid;
+            if (c > 0) hi = mid - 1;
+            else lo = mid + 1;
+        }
+        return -(lo + 1);
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= ids.length) return;
+        int grown = Math.max(n, ids.length + (ids.length >> 1));
+        epochDays = Arrays.copyOf(epochDays, grown);
+        ids = Arrays.copyOf(ids, grown);
+    }
+}
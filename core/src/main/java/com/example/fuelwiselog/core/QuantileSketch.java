@@ -0,0 +1,136 @@
+package com.example.fuelwiselog.core;
+
+import java.util.Arrays;
+
+// Mergeable quantile sketch: positive values are counted in logarithmic buckets, each spanning
+// +/-1% around its representative value, so any quantile comes back within 1% of a value actually
+// seen at that rank. Two sketches merge by adding their buckets, which is what lets per-vehicle
+// results combine into fleet results.
+// Only buckets that have been hit are stored (sorted by index), so memory follows the number of
+// distinct buckets: one vehicle's efficiency spans a few dozen, not the ~1000 of the whole range.
+// add() allocates only when a new bucket outgrows the arrays.
+public final class QuantileSketch {
+
+    // Relative accuracy of every returned quantile
+    public static final double RELATIVE_ACCURACY = 0.01;
+    // Smallest and largest positive values kept apart; anything outside lands in the edge buckets.
+    // RM/km and L/100km both sit comfortably inside.
+    private static final double MIN_VALUE = 1e-4;
+    private static final double MAX_VALUE = 1e5;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    // Bucket indexes in ascending order and their counts; only [0, size) is in use
+    private int[] indexes = new int[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY];
+    private int size;
+    // Values <= 0 (e.g. a free fill-up) have no logarithm and are counted here
+    private long nonPositiveCount;
+    private long count;
+
+    public void add(double value) {
+        if (Double.isNaN(value)) return;
+        count++;
+        if (value <= 0) {
+            nonPositiveCount++;
+            return;
+        }
+        int index = bucketIndex(Math.min(Math.max(value, MIN_VALUE), MAX_VALUE));
+        int at = find(index);
+        if (at >= 0) {
+            counts[at]++;
+        } else {
+            insert(-at - 1, index);
+        }
+    }
+
+    // Adds the other sketch's buckets (a sorted merge of the two bucket lists)
+    public void merge(QuantileSketch other) {
+        if (other.size > 0) {
+            int[] mergedIndexes = new int[size + other.size];
+            long[] mergedCounts = new long[size + other.size];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || (i < size && indexes[i] < other.indexes[j])) {
+                    mergedIndexes[n] = indexes[i];
+                    mergedCounts[n++] = counts[i++];
+                } else if (i == size || other.indexes[j] < indexes[i]) {
+                    mergedIndexes[n] = other.indexes[j];
+                    mergedCounts[n++] = other.counts[j++];
+                } else {
+                    mergedIndexes[n] = indexes[i];
+                    mergedCounts[n++] = counts[i++] + other.counts[j++];
+                }
+            }
+            indexes = mergedIndexes;
+            counts = mergedCounts;
+            size = n;
+        }
+        nonPositiveCount += other.nonPositiveCount;
+        count += other.count;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    // Distinct buckets held (what the memory use grows with)
+    public int bucketCount() {
+        return size;
+    }
+
+    // Value at quantile q (0 = smallest, 1 = largest), or NaN when empty
+    public double quantile(double q) {
+        if (count == 0) return Double.NaN;
+        long rank = (long) Math.floor(Math.min(Math.max(q, 0), 1) * (count - 1));
+        if (rank < nonPositiveCount) return 0;
+        long seen = nonPositiveCount;
+        for (int i = 0; i < size; i++) {
+            seen += counts[i];
+            if (seen > rank) return representative(indexes[i]);
+        }
+        return MAX_VALUE;
+    }
+
+    // Position of a bucket index, or (-(insertion point) - 1) like Arrays.binarySearch
+    private int find(int index) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (indexes[mid] < index) lo = mid + 1;
+            else if (indexes[mid] > index) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    // New bucket with a count of one at position at
+    private void insert(int at, int index) {
+        if (size == indexes.length) {
+            int grown = Math.max(INITIAL_CAPACITY, size + (size >> 1));
+            indexes = Arrays.copyOf(indexes, grown);
+            counts = Arrays.copyOf(counts, grown);
+        }
+        System.arraycopy(indexes, at, indexes, at + 1, size - at);
+        System.arraycopy(counts, at, counts, at + 1, size - at);
+        indexes[at] = index;
+        counts[at] = 1;
+        size++;
+    }
+
+    // Bucket i holds (GAMMA^(i-1), GAMMA^i]
+    private static int bucketIndex(double value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    // The point within RELATIVE_ACCURACY of both bucket edges
+    private static double representative(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.fuelwiselog.core;
+
+// One-pass statistics of a stream of values: count, mean and variance (Welford's update),
+// min, max and approximate quantiles (QuantileSketch). add() only allocates when the sketch needs
+// room for a new bucket, and two accumulators merge exactly (Chan et al. for the variance), so
+// partial results over disjoint data combine without rescanning it.
+public final class StreamingStats {
+
+    private long count;
+    private double mean;
+    // Sum of squared differences from the current mean
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private final QuantileSketch sketch = new QuantileSketch();
+
+    // NaN values (no interval) are ignored
+    public void add(double value) {
+        if (Double.isNaN(value)) return;
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (value < min) min = value;
+        if (value > max) max = value;
+        sketch.add(value);
+    }
+
+    public void merge(StreamingStats other) {
+        if (other.count == 0) return;
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+        } else {
+            long n = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / n;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+            count = n;
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sketch.merge(other.sketch);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    // The remaining getters return NaN while empty
+    public double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    // Sample variance (n - 1); 0 for a single value
+    public double variance() {
+        if (count == 0) return Double.NaN;
+        return count == 1 ? 0 : m2 / (count - 1);
+    }
+
+    public double stdDev() {
+        return Math.sqrt(variance());
+    }
+
+    public double min() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double max() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    // Approximate (QuantileSketch.RELATIVE_ACCURACY), clamped to the exact min and max
+    public double quantile(double q) {
+        if (count == 0) return Double.NaN;
+        return Math.min(Math.max(sketch.quantile(q), min), max);
+    }
+
+    public double median() {
+        return quantile(0.5);
+    }
+
+    public double p90() {
+        return quantile(0.9);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.fuelwiselog.core;
+
+// Running totals of one vehicle's fill-ups; the in-memory twin of the vehicle_stats row.
+// Built up with add() one fill-up at a time, or merged from partial totals.
+public final class VehicleTotals {
+
+    public int recordCount;
+    public double totalCostRm;
+    public double totalLiters;
+    // Only meaningful when recordCount > 0
+    public double minMileageKm = Double.POSITIVE_INFINITY;
+    public double maxMileageKm = Double.NEGATIVE_INFINITY;
+
+    // Sums over fill-ups that have an interval, for the averages
+    public int efficiencyCount;
+    public double sumDistanceKm;
+    public double sumRmPerKm;
+    public double sumLitersPer100Km;
+
+    // interval may be null (first fill-up of the vehicle)
+    public void add(double costRm, double volumeLiters, double mileageKm, Interval interval) {
+        if (interval == null) {
+            add(costRm, volumeLiters, mileageKm, Double.NaN, Double.NaN, Double.NaN);
+        } else {
+            add(costRm, volumeLiters, mileageKm, interval.distanceKm, interval.rmPerKm, interval.litersPer100Km);
+        }
+    }
+
+    // Same with the interval as plain values (NaN distance = no interval), as stored in FuelColumns
+    public void add(double costRm, double volumeLiters, double mileageKm,
+                    double distanceKm, double rmPerKm, double litersPer100Km) {
+        recordCount++;
+        totalCostRm += costRm;
+        totalLiters += volumeLiters;
+        if (mileageKm < minMileageKm) minMileageKm = mileageKm;
+        if (mileageKm > maxMileageKm) maxMileageKm = mileageKm;
+        if (!Double.isNaN(distanceKm)) {
+            efficiencyCount++;
+            sumDistanceKm += distanceKm;
+            sumRmPerKm += rmPerKm;
+            sumLitersPer100Km += litersPer100Km;
+        }
+    }
+
+    public void merge(VehicleTotals other) {
+        recordCount += other.recordCount;
+        totalCostRm += other.totalCostRm;
+        totalLiters += other.totalLiters;
+        minMileageKm = Math.min(minMileageKm, other.minMileageKm);
+        maxMileageKm = Math.max(maxMileageKm, other.maxMileageKm);
+        efficiencyCount += other.efficiencyCount;
+        sumDistanceKm += other.sumDistanceKm;
+        sumRmPerKm += other.sumRmPerKm;
+        sumLitersPer100Km += other.sumLitersPer100Km;
+    }
+
+    // Dashboard figures for these totals; null if there is not enough history yet
+    public DashboardSummary toSummary() {
+        if (recordCount == 0) return null;
+        return DashboardSummary.from(recordCount, minMileageKm, maxMileageKm, totalCostRm,
+                efficiencyCount, sumRmPerKm, sumLitersPer100Km);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.fuelwiselog.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+// The dashboard figures from running totals, and when there is not enough history for them
+public class DashboardSummaryTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    public void figuresComeFromTheTotals() {
+        DashboardSummary s = DashboardSummary.from(3, 1000, 1900, 190, 2, 0.25, 12.5);
+        assertEquals(900, s.totalDistanceKm, EPS);
+        assertEquals(190, s.totalCostRm, EPS);
+        assertEquals(0.125, s.avgRmPerKm, EPS);
+        assertEquals(6.25, s.avgLitersPer100Km, EPS);
+    }
+
+    @Test
+    public void oneFillUpIsNotEnough() {
+        assertNull(DashboardSummary.from(1, 1000, 1000, 80, 0, 0, 0));
+    }
+
+    @Test
+    public void mileageThatNeverMovedGivesNoSummary() {
+        assertNull(DashboardSummary.from(2, 1000, 1000, 150, 0, 0, 0));
+        // Empty totals keep the infinite min/max
+        assertNull(DashboardSummary.from(2, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0, 0, 0, 0));
+    }
+
+    @Test
+    public void noIntervalMeansNoAverages() {
+        // Two fill-ups of different vehicles merged: the mileage range moved but no interval exists
+        assertNull(DashboardSummary.from(2, 500, 1000, 150, 0, 0, 0));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.fuelwiselog.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+// ISO string <-> epoch-day conversions and the calendar validation used by the CSV importer
+public class EpochDaysTest {
+
+    @Test
+    public void knownDates() {
+        assertEquals(0, EpochDays.fromIso("1970-01-01"));
+        assertEquals(19797, EpochDays.fromIso("2024-03-15"));
+        assertEquals(-1, EpochDays.fromIso("1969-12-31"));
+        assertEquals(10957, EpochDays.fromIso("2000-01-01"));
+        assertEquals("2024-03-15", EpochDays.toIso(19797));
+        assertEquals("1969-12-31", EpochDays.toIso(-1));
+        assertEquals(202403, EpochDays.yearMonth(19797));
+    }
+
+    // Every day from 1900 to 2100 round-trips and matches a proleptic Gregorian calendar
+    @Test
+    public void roundTripsAgainstGregorianCalendar() {
+        GregorianCalendar c = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        c.setGregorianChange(new Date(Long.MIN_VALUE));
+        c.clear();
+        c.set(1900, Calendar.JANUARY, 1);
+        long day = EpochDays.fromCivil(1900, 1, 1);
+        assertEquals(Math.floorDiv(c.getTimeInMillis(), 86_400_000L), day);
+        for (; c.get(Calendar.YEAR) < 2100; c.add(Calendar.DAY_OF_MONTH, 1), day++) {
+            String iso = String.format("%04d-%02d-%02d",
+                    c.get(Calendar.YEAR), c.get(Calendar.MONTH) + 1, c.get(Calendar.DAY_OF_MONTH));
+            assertEquals(iso, day, EpochDays.fromIso(iso));
+            assertEquals(iso, EpochDays.toIso(day));
+            assertTrue(iso, EpochDays.isIso(iso));
+        }
+    }
+
+    @Test
+    public void leapYears() {
+        assertEquals(29, EpochDays.daysInMonth(2024, 2));
+        assertEquals(28, EpochDays.daysInMonth(2023, 2));
+        assertEquals(28, EpochDays.daysInMonth(1900, 2));
+        assertEquals(29, EpochDays.daysInMonth(2000, 2));
+        assertEquals(30, EpochDays.daysInMonth(2024, 4));
+        assertEquals(31, EpochDays.daysInMonth(2024, 12));
+    }
+
+    @Test
+    public void rejectsMalformedAndImpossibleDates() {
+        assertFalse(EpochDays.isIso(null));
+        assertFalse(EpochDays.isIso(""));
+        assertFalse(EpochDays.isIso("2024-3-15"));
+        assertFalse(EpochDays.isIso("2024/03/15"));
+        assertFalse(EpochDays.isIso("2024-0a-15"));
+        assertFalse(EpochDays.isIso("2024-00-10"));
+        assertFalse(EpochDays.isIso("2024-13-01"));
+        assertFalse(EpochDays.isIso("2024-01-00"));
+        assertFalse(EpochDays.isIso("2024-02-30"));
+        assertFalse(EpochDays.isIso("2023-02-29"));
+        assertFalse(EpochDays.isIso("2024-04-31"));
+        assertEquals(EpochDays.UNKNOWN, EpochDays.fromIso("2024-02-31"));
+        assertTrue(EpochDays.isIso("2024-02-29"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.fuelwiselog.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+// The fork/join paths against the sequential FuelLogMath / EfficiencyStats ones. Each vehicle of the
+// dataset is several SEGMENT_ROWS long, so vehicles are also split across segments.
+public class FleetParallelTest {
+
+    private static final double EPS = 1e-6;
+    private static final int RECORDS = Datasets.VEHICLES * (3 * FleetParallel.SEGMENT_ROWS + 17);
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @Test
+    public void recomputedIntervalsMatchTheSequentialPath() {
+        FuelColumns c = Datasets.columns(RECORDS);
+        double[] distance = c.distanceKm.clone();
+        double[] rmPerKm = c.rmPerKm.clone();
+        double[] litersPer100Km = c.litersPer100Km.clone();
+
+        Arrays.fill(c.distanceKm, 0);
+        Arrays.fill(c.rmPerKm, 0);
+        Arrays.fill(c.litersPer100Km, 0);
+        FleetParallel.recomputeIntervals(pool, c);
+
+        // NaN (no interval) compares equal to NaN here
+        assertArrayEquals(distance, c.distanceKm, 0);
+        assertArrayEquals(rmPerKm, c.rmPerKm, 0);
+        assertArrayEquals(litersPer100Km, c.litersPer100Km, 0);
+    }
+
+    @Test
+    public void totalsMatchTheSequentialPath() {
+        FuelColumns c = Datasets.columns(RECORDS);
+        Map<Long, VehicleTotals> expected = FuelLogMath.totalsByVehicle(c);
+        Map<Long, VehicleTotals> actual = FleetParallel.totalsByVehicle(pool, c);
+
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<Long, VehicleTotals> e : expected.entrySet()) {
+            VehicleTotals want = e.getValue();
+            VehicleTotals got = actual.get(e.getKey());
+            assertEquals(want.recordCount, got.recordCount);
+            assertEquals(want.efficiencyCount, got.efficiencyCount);
+            assertEquals(want.minMileageKm, got.minMileageKm, 0);
+            assertEquals(want.maxMileageKm, got.maxMileageKm, 0);
+            // Segments are summed separately, so the last bits may differ
+            assertEquals(want.totalCostRm, got.totalCostRm, EPS * want.totalCostRm);
+            assertEquals(want.sumDistanceKm, got.sumDistanceKm, EPS * want.sumDistanceKm);
+        }
+    }
+
+    @Test
+    public void efficiencyMatchesTheSequentialPath() {
+        FuelColumns c = Datasets.columns(RECORDS);
+        Map<Long, EfficiencyStats> expected = EfficiencyStats.byVehicle(c);
+        Map<Long, EfficiencyStats> actual = FleetParallel.efficiencyByVehicle(pool, c);
+
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<Long, EfficiencyStats> e : expected.entrySet()) {
+            StreamingStats want = e.getValue().rmPerKm;
+            StreamingStats got = actual.get(e.getKey()).rmPerKm;
+            assertEquals(want.count(), got.count());
+            assertEquals(want.mean(), got.mean(), EPS);
+            assertEquals(want.variance(), got.variance(), EPS);
+            assertEquals(want.min(), got.min(), 0);
+            assertEquals(want.max(), got.max(), 0);
+        }
+    }
+
+    @Test
+    public void emptySnapshotHasNoVehicles() {
+        assertEquals(0, FleetParallel.totalsByVehicle(pool, FuelColumns.EMPTY).size());
+        FleetParallel.recomputeIntervals(pool, FuelColumns.EMPTY);
+    }
+}
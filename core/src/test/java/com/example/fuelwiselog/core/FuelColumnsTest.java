@@ -0,0 +1,91 @@
+package com.example.fuelwiselog.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+// Vehicle ranges (runs of equal vehicleId), range totals and the Builder's growth and trimming
+public class FuelColumnsTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    public void emptyColumnsHaveNoRanges() {
+        assertEquals(0, FuelColumns.EMPTY.size);
+        assertEquals(0, FuelColumns.EMPTY.vehicleRanges());
+    }
+
+    @Test
+    public void eachRunOfAVehicleIsOneRange() {
+        // 7, 7, 3, 3, 3, 7: vehicle 7 comes back after vehicle 3, so it gets a second range
+        FuelColumns c = columns(7, 7, 3, 3, 3, 7);
+
+        assertEquals(3, c.vehicleRanges());
+        assertEquals(7, c.rangeVehicleId(0));
+        assertEquals(0, c.start(0));
+        assertEquals(2, c.end(0));
+        assertEquals(3, c.rangeVehicleId(1));
+        assertEquals(2, c.start(1));
+        assertEquals(5, c.end(1));
+        assertEquals(7, c.rangeVehicleId(2));
+        assertEquals(5, c.start(2));
+        assertEquals(6, c.end(2));
+    }
+
+    @Test
+    public void rangesCoverEveryRowOnce() {
+        FuelColumns c = columns(1, 2, 2, 2, 5, 5, 9);
+        int covered = 0;
+        for (int v = 0; v < c.vehicleRanges(); v++) {
+            assertEquals(c.start(v), covered);
+            for (int i = c.start(v); i < c.end(v); i++) assertEquals(c.rangeVehicleId(v), c.vehicleIds[i]);
+            covered = c.end(v);
+        }
+        assertEquals(c.size, covered);
+    }
+
+    @Test
+    public void rangeTotalsUseTheStoredIntervals() {
+        FuelColumns.Builder b = new FuelColumns.Builder(3);
+        b.add(1, 4, 100, 1000, 80, 40, Double.NaN, Double.NaN, Double.NaN);
+        b.add(2, 4, 107, 1400, 66, 30, 400, 0.165, 7.5);
+        b.add(3, 4, 115, 1900, 70, 35, 500, 0.14, 7.0);
+        FuelColumns c = b.build();
+
+        assertFalse(c.hasInterval(0));
+        assertTrue(c.hasInterval(1));
+        VehicleTotals t = c.totals(c.start(0), c.end(0));
+        assertEquals(3, t.recordCount);
+        assertEquals(216, t.totalCostRm, EPS);
+        assertEquals(2, t.efficiencyCount);
+        assertEquals(900, t.sumDistanceKm, EPS);
+        assertEquals(14.5, t.sumLitersPer100Km, EPS);
+
+        VehicleTotals tail = c.totals(1, 3);
+        assertEquals(2, tail.recordCount);
+        assertEquals(1400, tail.minMileageKm, 0);
+    }
+
+    @Test
+    public void builderGrowsPastItsExpectedSizeAndTrims() {
+        FuelColumns.Builder b = new FuelColumns.Builder(1);
+        for (int i = 0; i < 100; i++) b.add(i + 1, i / 10, 100 + i, i, 1, 1, Double.NaN, Double.NaN, Double.NaN);
+        FuelColumns c = b.build();
+
+        assertEquals(100, c.size);
+        assertEquals(100, c.ids.length);
+        assertEquals(100, c.ids[99]);
+        assertEquals(10, c.vehicleRanges());
+        assertEquals(90, c.start(9));
+    }
+
+    private static FuelColumns columns(long... vehicleIds) {
+        FuelColumns.Builder b = new FuelColumns.Builder(vehicleIds.length);
+        for (int i = 0; i < vehicleIds.length; i++) {
+            b.add(i + 1, vehicleIds[i], 100 + i, 1000 + i * 100, 50, 25, Double.NaN, Double.NaN, Double.NaN);
+        }
+        return b.build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.fuelwiselog.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// The reference whole-history math: intervals per vehicle range, and totals from objects and from columns
+public class FuelLogMathTest {
+
+    private static final double EPS = 1e-9;
+
+    // Two vehicles, each in mileage order; vehicle 2's second fill-up repeats the mileage
+    private static final List<FuelEntry> ENTRIES = Arrays.asList(
+            new FuelEntry(1, 1, 100, 40, 80, 1000),
+            new FuelEntry(2, 1, 107, 30, 66, 1400),
+            new FuelEntry(3, 1, 115, 35, 70, 1900),
+            new FuelEntry(4, 2, 101, 20, 42, 500),
+            new FuelEntry(5, 2, 102, 25, 50, 500));
+
+    @Test
+    public void intervalsCompareEachRowWithThePreviousRowOfItsVehicle() {
+        FuelColumns c = columns(ENTRIES);
+        FuelLogMath.recomputeIntervals(c, 0, c.size);
+
+        assertTrue(Double.isNaN(c.distanceKm[0]));
+        assertEquals(400, c.distanceKm[1], EPS);
+        assertEquals(66.0 / 400, c.rmPerKm[1], EPS);
+        assertEquals(30.0 / 400 * 100, c.litersPer100Km[1], EPS);
+        assertEquals(500, c.distanceKm[2], EPS);
+        // First row of the next vehicle, then a repeated mileage: no interval
+        assertTrue(Double.isNaN(c.distanceKm[3]));
+        assertTrue(Double.isNaN(c.distanceKm[4]));
+        assertTrue(Double.isNaN(c.rmPerKm[4]));
+    }
+
+    @Test
+    public void aSliceOfAVehicleRangeIsRecomputedOnItsOwn() {
+        FuelColumns whole = columns(ENTRIES);
+        FuelLogMath.recomputeIntervals(whole, 0, whole.size);
+        FuelColumns sliced = columns(ENTRIES);
+        FuelLogMath.recomputeIntervals(sliced, 2, 3);
+        FuelLogMath.recomputeIntervals(sliced, 0, 2);
+        FuelLogMath.recomputeIntervals(sliced, 3, sliced.size);
+
+        for (int i = 0; i < whole.size; i++) {
+            assertEquals(whole.distanceKm[i], sliced.distanceKm[i], 0);
+            assertEquals(whole.rmPerKm[i], sliced.rmPerKm[i], 0);
+        }
+    }
+
+    @Test
+    public void totalsFromEntriesAndFromColumnsAgree() {
+        FuelColumns c = columns(ENTRIES);
+        FuelLogMath.recomputeIntervals(c, 0, c.size);
+        Map<Long, VehicleTotals> fromEntries = FuelLogMath.totalsByVehicle(ENTRIES);
+        Map<Long, VehicleTotals> fromColumns = FuelLogMath.totalsByVehicle(c);
+
+        assertEquals(fromEntries.keySet(), fromColumns.keySet());
+        VehicleTotals car = fromEntries.get(1L);
+        assertEquals(3, car.recordCount);
+        assertEquals(216, car.totalCostRm, EPS);
+        assertEquals(2, car.efficiencyCount);
+        assertEquals(900, car.sumDistanceKm, EPS);
+        assertEquals(car.sumRmPerKm, fromColumns.get(1L).sumRmPerKm, EPS);
+
+        VehicleTotals bike = fromColumns.get(2L);
+        assertEquals(2, bike.recordCount);
+        assertEquals(0, bike.efficiencyCount);
+    }
+
+    @Test
+    public void splitVehicleRangesAreMergedIntoOneTotal() {
+        // Vehicle 1 appears in two runs, so it has two ranges
+        List<FuelEntry> split = Arrays.asList(ENTRIES.get(0), ENTRIES.get(3), ENTRIES.get(1));
+        FuelColumns c = columns(split);
+        assertEquals(3, c.vehicleRanges());
+
+        Map<Long, VehicleTotals> totals = FuelLogMath.totalsByVehicle(c);
+        assertEquals(2, totals.size());
+        assertEquals(2, totals.get(1L).recordCount);
+        assertEquals(146, totals.get(1L).totalCostRm, EPS);
+    }
+
+    private static FuelColumns columns(List<FuelEntry> entries) {
+        FuelColumns.Builder b = new FuelColumns.Builder(entries.size());
+        for (FuelEntry e : entries) {
+            b.add(e.id, e.vehicleId, (int) e.epochDay, e.mileageKm, e.costRm, e.volumeLiters,
+                    Double.NaN, Double.NaN, Double.NaN);
+        }
+        return b.build();
+    }
+}
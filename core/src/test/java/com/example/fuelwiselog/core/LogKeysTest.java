@@ -0,0 +1,83 @@
+package com.example.fuelwiselog.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+// Newest-first keys with month headers: header keys, binary search, insert and remove
+public class LogKeysTest {
+
+    private static final long MAR_31 = EpochDays.fromCivil(2024, 3, 31);
+    private static final long MAR_01 = EpochDays.fromCivil(2024, 3, 1);
+    private static final long FEB_29 = EpochDays.fromCivil(2024, 2, 29);
+    private static final long APR_01 = EpochDays.fromCivil(2024, 4, 1);
+
+    @Test
+    public void headerDayIsTheFirstDayOfTheNextMonth() {
+        assertEquals(APR_01, LogKeys.headerDay(202403));
+        assertEquals(EpochDays.fromCivil(2025, 1, 1), LogKeys.headerDay(202412));
+    }
+
+    @Test
+    public void aHeaderSortsBetweenItsMonthAndTheNextOne() {
+        LogKeys k = window();
+        // [Apr header, Apr 1 #9, Mar header, Mar 31 #5, Mar 1 #4, Feb header, Feb 29 #2]
+        assertEquals(7, k.size());
+        assertTrue(k.isHeader(0));
+        assertTrue(k.isHeader(2));
+        assertTrue(k.isHeader(5));
+        assertFalse(k.isHeader(1));
+
+        assertEquals(2, k.search(LogKeys.headerDay(202403), LogKeys.HEADER_ID));
+        assertEquals(1, k.search(APR_01, 9));
+        assertEquals(4, k.search(MAR_01, 4));
+        // A missing month's header would go after the newer rows
+        assertEquals(-(7 + 1), k.search(LogKeys.headerDay(202401), LogKeys.HEADER_ID));
+    }
+
+    @Test
+    public void insertionPointsFollowDayThenId() {
+        LogKeys k = window();
+        // Same day as #5, newer id: just before it, after the March header
+        assertEquals(-(3 + 1), k.search(MAR_31, 6));
+        // Same day, older id: after it
+        assertEquals(-(4 + 1), k.search(MAR_31, 3));
+    }
+
+    @Test
+    public void insertAndRemoveKeepTheOrder() {
+        LogKeys k = window();
+        int at = -k.search(MAR_31, 6) - 1;
+        k.insert(at, MAR_31, 6);
+        assertEquals(8, k.size());
+        assertEquals(3, k.search(MAR_31, 6));
+        assertEquals(4, k.search(MAR_31, 5));
+
+        k.remove(3);
+        assertEquals(7, k.size());
+        assertEquals(3, k.search(MAR_31, 5));
+        assertEquals(6, k.search(FEB_29, 2));
+    }
+
+    @Test
+    public void growsPastItsCapacity() {
+        LogKeys k = new LogKeys(0);
+        for (int i = 0; i < 1000; i++) k.add(10_000 - i, 1);
+        assertEquals(1000, k.size());
+        assertEquals(999, k.search(10_000 - 999, 1));
+    }
+
+    private static LogKeys window() {
+        LogKeys k = new LogKeys(4);
+        k.add(LogKeys.headerDay(202404), LogKeys.HEADER_ID);
+        k.add(APR_01, 9);
+        k.add(LogKeys.headerDay(202403), LogKeys.HEADER_ID);
+        k.add(MAR_31, 5);
+        k.add(MAR_01, 4);
+        k.add(LogKeys.headerDay(202402), LogKeys.HEADER_ID);
+        k.add(FEB_29, 2);
+        return k;
+    }
+}
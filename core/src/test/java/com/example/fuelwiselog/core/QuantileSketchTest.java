@@ -0,0 +1,91 @@
+package com.example.fuelwiselog.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Every quantile is within RELATIVE_ACCURACY of the exact value at the same rank
+public class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1};
+
+    @Test
+    public void emptySketchIsNaN() {
+        QuantileSketch s = new QuantileSketch();
+        assertEquals(0, s.count());
+        assertTrue(Double.isNaN(s.quantile(0.5)));
+    }
+
+    @Test
+    public void uniformValuesStayWithinRelativeAccuracy() {
+        Random r = new Random(3);
+        double[] values = new double[20_000];
+        for (int i = 0; i < values.length; i++) values[i] = 0.15 + 0.15 * r.nextDouble();
+        assertWithinBounds(values);
+    }
+
+    @Test
+    public void skewedValuesStayWithinRelativeAccuracy() {
+        // Log-normal over several orders of magnitude (1e-2 .. 1e3)
+        Random r = new Random(4);
+        double[] values = new double[20_000];
+        for (int i = 0; i < values.length; i++) values[i] = Math.exp(2 + 1.5 * r.nextGaussian());
+        assertWithinBounds(values);
+    }
+
+    @Test
+    public void zeroAndNegativeValuesCountAsZero() {
+        QuantileSketch s = new QuantileSketch();
+        s.add(-1);
+        s.add(0);
+        s.add(5);
+        assertEquals(3, s.count());
+        assertEquals(0, s.quantile(0), 0);
+        assertEquals(0, s.quantile(0.5), 0);
+        assertEquals(5, s.quantile(1), 5 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    public void mergeEqualsSingleSketch() {
+        Random r = new Random(5);
+        QuantileSketch whole = new QuantileSketch();
+        QuantileSketch a = new QuantileSketch();
+        QuantileSketch b = new QuantileSketch();
+        for (int i = 0; i < 5_000; i++) {
+            // Parts with partly overlapping ranges, so the merge interleaves buckets
+            double v = i % 2 == 0 ? 0.1 + r.nextDouble() : 0.5 + 2 * r.nextDouble();
+            whole.add(v);
+            (i % 2 == 0 ? a : b).add(v);
+        }
+        a.merge(b);
+        assertEquals(whole.count(), a.count());
+        assertEquals(whole.bucketCount(), a.bucketCount());
+        for (double q : QUANTILES) assertEquals(whole.quantile(q), a.quantile(q), 0);
+    }
+
+    @Test
+    public void storesOnlyBucketsThatWereHit() {
+        QuantileSketch s = new QuantileSketch();
+        for (int i = 0; i < 10_000; i++) s.add(0.2);
+        assertEquals(1, s.bucketCount());
+        s.add(20);
+        assertEquals(2, s.bucketCount());
+    }
+
+    private static void assertWithinBounds(double[] values) {
+        QuantileSketch s = new QuantileSketch();
+        for (double v : values) s.add(v);
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            double exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+            double approx = s.quantile(q);
+            assertTrue("q=" + q + ": " + approx + " vs exact " + exact,
+                    Math.abs(approx - exact) <= QuantileSketch.RELATIVE_ACCURACY * exact);
+        }
+    }
+}
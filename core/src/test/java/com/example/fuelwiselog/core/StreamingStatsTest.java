@@ -0,0 +1,135 @@
+package com.example.fuelwiselog.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+// Welford's one-pass mean/variance and the Chan et al. merge, checked against a two-pass computation
+public class StreamingStatsTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    public void emptyStatsAreNaN() {
+        StreamingStats s = new StreamingStats();
+        assertEquals(0, s.count());
+        assertTrue(Double.isNaN(s.mean()));
+        assertTrue(Double.isNaN(s.variance()));
+        assertTrue(Double.isNaN(s.min()));
+        assertTrue(Double.isNaN(s.median()));
+    }
+
+    @Test
+    public void singleValueHasZeroVariance() {
+        StreamingStats s = new StreamingStats();
+        s.add(0.25);
+        assertEquals(0.25, s.mean(), EPS);
+        assertEquals(0, s.variance(), 0);
+        assertEquals(0.25, s.median(), EPS);
+    }
+
+    @Test
+    public void nanValuesAreIgnored() {
+        StreamingStats s = new StreamingStats();
+        s.add(1);
+        s.add(Double.NaN);
+        s.add(3);
+        assertEquals(2, s.count());
+        assertEquals(2, s.mean(), EPS);
+    }
+
+    @Test
+    public void matchesTwoPassMeanAndVariance() {
+        double[] values = values(10_000, 1);
+        StreamingStats s = new StreamingStats();
+        for (double v : values) s.add(v);
+
+        assertEquals(values.length, s.count());
+        assertEquals(mean(values), s.mean(), EPS);
+        assertEquals(variance(values), s.variance(), EPS);
+        assertEquals(min(values), s.min(), 0);
+        assertEquals(max(values), s.max(), 0);
+    }
+
+    // A large offset makes the naive sum-of-squares formula lose every digit; Welford's does not
+    @Test
+    public void varianceStaysAccurateWithLargeOffset() {
+        StreamingStats s = new StreamingStats();
+        double[] values = {1e9 + 4, 1e9 + 7, 1e9 + 13, 1e9 + 16};
+        for (double v : values) s.add(v);
+        assertEquals(30, s.variance(), 1e-6);
+    }
+
+    @Test
+    public void mergeOfPartsEqualsWholeStream() {
+        double[] values = values(9_000, 2);
+        StreamingStats whole = new StreamingStats();
+        for (double v : values) whole.add(v);
+
+        // Uneven parts, including an empty one
+        int[] cuts = {0, 17, 17, 4_000, 9_000};
+        StreamingStats merged = new StreamingStats();
+        for (int p = 0; p + 1 < cuts.length; p++) {
+            StreamingStats part = new StreamingStats();
+            for (int i = cuts[p]; i < cuts[p + 1]; i++) part.add(values[i]);
+            merged.merge(part);
+        }
+
+        assertEquals(whole.count(), merged.count());
+        assertEquals(whole.mean(), merged.mean(), EPS);
+        assertEquals(whole.variance(), merged.variance(), EPS);
+        assertEquals(whole.min(), merged.min(), 0);
+        assertEquals(whole.max(), merged.max(), 0);
+        assertEquals(whole.median(), merged.median(), 0);
+        assertEquals(whole.p90(), merged.p90(), 0);
+    }
+
+    @Test
+    public void mergeIntoEmptyCopiesOther() {
+        StreamingStats other = new StreamingStats();
+        other.add(2);
+        other.add(4);
+        StreamingStats s = new StreamingStats();
+        s.merge(other);
+        s.merge(new StreamingStats());
+        assertEquals(2, s.count());
+        assertEquals(3, s.mean(), EPS);
+        assertEquals(2, s.variance(), EPS);
+    }
+
+    // RM/km-like values around 0.2 with some spread
+    static double[] values(int n, long seed) {
+        Random r = new Random(seed);
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) out[i] = 0.2 + 0.05 * r.nextGaussian();
+        return out;
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double v : values) sum += v;
+        return sum / values.length;
+    }
+
+    private static double variance(double[] values) {
+        double mean = mean(values);
+        double sum = 0;
+        for (double v : values) sum += (v - mean) * (v - mean);
+        return sum / (values.length - 1);
+    }
+
+    private static double min(double[] values) {
+        double m = Double.POSITIVE_INFINITY;
+        for (double v : values) m = Math.min(m, v);
+        return m;
+    }
+
+    private static double max(double[] values) {
+        double m = Double.NEGATIVE_INFINITY;
+        for (double v : values) m = Math.max(m, v);
+        return m;
+    }
+}
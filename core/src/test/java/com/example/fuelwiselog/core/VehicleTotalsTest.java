@@ -0,0 +1,84 @@
+package com.example.fuelwiselog.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+// Running totals built one fill-up at a time, merged from parts, and turned into the dashboard figures
+public class VehicleTotalsTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    public void fillUpsWithoutAnIntervalOnlyCountTowardsTheTotals() {
+        VehicleTotals t = new VehicleTotals();
+        t.add(80, 40, 1000, null);
+        t.add(66, 30, 1400, Interval.between(1000, 1400, 66, 30));
+        t.add(10, 5, 1400, Double.NaN, Double.NaN, Double.NaN);
+
+        assertEquals(3, t.recordCount);
+        assertEquals(156, t.totalCostRm, EPS);
+        assertEquals(75, t.totalLiters, EPS);
+        assertEquals(1000, t.minMileageKm, 0);
+        assertEquals(1400, t.maxMileageKm, 0);
+        assertEquals(1, t.efficiencyCount);
+        assertEquals(400, t.sumDistanceKm, EPS);
+        assertEquals(66.0 / 400, t.sumRmPerKm, EPS);
+        assertEquals(7.5, t.sumLitersPer100Km, EPS);
+    }
+
+    @Test
+    public void mergeMatchesAddingEverythingToOneTotal() {
+        VehicleTotals whole = new VehicleTotals();
+        VehicleTotals first = new VehicleTotals();
+        VehicleTotals second = new VehicleTotals();
+        double previous = 0;
+        for (int i = 0; i < 20; i++) {
+            double mileage = 1000 + i * 350;
+            Interval interval = i == 0 ? null : Interval.between(previous, mileage, 70 + i, 30 + i % 4);
+            whole.add(70 + i, 30 + i % 4, mileage, interval);
+            (i < 7 ? first : second).add(70 + i, 30 + i % 4, mileage, interval);
+            previous = mileage;
+        }
+        first.merge(second);
+
+        assertEquals(whole.recordCount, first.recordCount);
+        assertEquals(whole.efficiencyCount, first.efficiencyCount);
+        assertEquals(whole.minMileageKm, first.minMileageKm, 0);
+        assertEquals(whole.maxMileageKm, first.maxMileageKm, 0);
+        assertEquals(whole.totalCostRm, first.totalCostRm, EPS);
+        assertEquals(whole.totalLiters, first.totalLiters, EPS);
+        assertEquals(whole.sumDistanceKm, first.sumDistanceKm, EPS);
+        assertEquals(whole.sumLitersPer100Km, first.sumLitersPer100Km, EPS);
+    }
+
+    @Test
+    public void mergingEmptyTotalsChangesNothing() {
+        VehicleTotals t = new VehicleTotals();
+        t.add(80, 40, 1000, null);
+        t.merge(new VehicleTotals());
+        assertEquals(1, t.recordCount);
+        assertEquals(1000, t.minMileageKm, 0);
+        assertEquals(1000, t.maxMileageKm, 0);
+    }
+
+    @Test
+    public void summaryAveragesOverFillUpsWithAnInterval() {
+        VehicleTotals t = new VehicleTotals();
+        t.add(80, 40, 1000, null);
+        t.add(60, 30, 1400, Interval.between(1000, 1400, 60, 30));
+        t.add(50, 25, 1900, Interval.between(1400, 1900, 50, 25));
+
+        DashboardSummary s = t.toSummary();
+        assertEquals(900, s.totalDistanceKm, EPS);
+        assertEquals(190, s.totalCostRm, EPS);
+        assertEquals((60.0 / 400 + 50.0 / 500) / 2, s.avgRmPerKm, EPS);
+        assertEquals((7.5 + 5.0) / 2, s.avgLitersPer100Km, EPS);
+    }
+
+    @Test
+    public void noSummaryWithoutHistory() {
+        assertNull(new VehicleTotals().toSummary());
+    }
+}
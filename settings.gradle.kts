@@ -14,3 +14,4 @@ dependencyResolutionManagement {
 }
 rootProject.name = "FuelWiseLog"
 include(":app")
+include(":core")